@@ -0,0 +1,89 @@
+package fr.polytech.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a Keycloak access token, for a client reusing its token (cached authorities) and for a new token each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthConverterBenchmark {
+
+    private JwtAuthConverter converter;
+
+    private Jwt reusedToken;
+
+    private Jwt[] newTokens;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        converter = new JwtAuthConverter("preferred_username", "reference-api", 10_000);
+        reusedToken = newJwt(UUID.randomUUID().toString());
+        newTokens = new Jwt[100_000];
+        for (int i = 0; i < newTokens.length; i++) {
+            newTokens[i] = newJwt(UUID.randomUUID().toString());
+        }
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertReusedToken() {
+        return converter.convert(reusedToken);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertNewToken() {
+        next = (next + 1) % newTokens.length;
+        return converter.convert(newTokens[next]);
+    }
+
+    /**
+     * Build a decoded token with the claims of a Keycloak access token.
+     *
+     * @param tokenValue Value of the token.
+     * @return Jwt
+     */
+    private static Jwt newJwt(String tokenValue) {
+        Instant issuedAt = Instant.now();
+        return Jwt.withTokenValue(tokenValue)
+                .header("alg", "RS256")
+                .header("kid", "key")
+                .issuer("https://auth.seasonsforce.fr/realms/seasonsforce")
+                .subject(UUID.randomUUID().toString())
+                .audience(List.of("account", "reference-api"))
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(3600))
+                .claim("typ", "Bearer")
+                .claim("azp", "frontend")
+                .claim("preferred_username", "jane.doe")
+                .claim("email", "jane.doe@seasonsforce.fr")
+                .claim("scope", "openid profile email")
+                .claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", "default-roles-seasonsforce")))
+                .claim("resource_access", Map.of(
+                        "reference-api", Map.of("roles", List.of("client_candidate", "client_recruiter")),
+                        "account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile"))))
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package fr.polytech.jmh;
+
+import fr.polytech.App;
+import fr.polytech.model.Reference;
+import fr.polytech.model.ReferencePage;
+import fr.polytech.model.ReferenceView;
+import fr.polytech.repository.ReferenceRepository;
+import fr.polytech.service.ReferenceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of ReferenceService, the application running with the test profile over its in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceServiceBenchmark {
+
+    private static final int REFERENCES = 10_000;
+
+    private static final int CONTACTS = 1_000;
+
+    private ConfigurableApplicationContext context;
+
+    private ReferenceService referenceService;
+
+    private List<UUID> ids;
+
+    private List<UUID> contactIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(App.class)
+                .profiles("test")
+                .run("--spring.main.web-application-type=none",
+                        "--eureka.client.enabled=false",
+                        "--logging.level.fr.polytech=WARN");
+        referenceService = context.getBean(ReferenceService.class);
+
+        ReferenceRepository referenceRepository = context.getBean(ReferenceRepository.class);
+        referenceRepository.deleteAll();
+        contactIds = new ArrayList<>(CONTACTS);
+        for (int i = 0; i < CONTACTS; i++) {
+            contactIds.add(UUID.randomUUID());
+        }
+        List<Reference> references = new ArrayList<>(REFERENCES);
+        for (int i = 0; i < REFERENCES; i++) {
+            Reference reference = new Reference();
+            reference.setContact("contact " + i);
+            reference.setCompanyId(UUID.randomUUID());
+            reference.setContactId(contactIds.get(i % CONTACTS));
+            reference.setContactJobTitle("jobTitle");
+            references.add(reference);
+        }
+        ids = referenceRepository.saveAll(references).stream().map(Reference::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Reference getReferenceById() {
+        return referenceService.getReferenceById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public List<ReferenceView> getReferenceByUserId() {
+        return referenceService.getReferenceByUserId(contactIds.get(ThreadLocalRandom.current().nextInt(contactIds.size())));
+    }
+
+    @Benchmark
+    public ReferencePage getFirstReferencePage() {
+        return referenceService.getReferencePage(null, 50);
+    }
+
+    @Benchmark
+    public String getReferencesEtagByUserId() {
+        return referenceService.getReferencesEtagByUserId(contactIds.get(ThreadLocalRandom.current().nextInt(contactIds.size())));
+    }
+}
@@ -0,0 +1,109 @@
+package fr.polytech.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.polytech.model.CompanyDTO;
+import fr.polytech.model.DetailedReferenceDTO;
+import fr.polytech.model.Reference;
+import fr.polytech.model.user.RecruiterDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialisation of the response bodies, with an ObjectMapper configured as Spring Boot configures its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private DetailedReferenceDTO detailedReference;
+
+    /**
+     * Lists of references of several sizes.
+     */
+    @State(Scope.Benchmark)
+    public static class References {
+
+        @Param({"10", "500"})
+        private int size;
+
+        private List<Reference> list;
+
+        @Setup
+        public void setUp() {
+            list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Reference reference = new Reference();
+                reference.setId(UUID.randomUUID());
+                reference.setContact("Jane Doe");
+                reference.setCompanyId(UUID.randomUUID());
+                reference.setContactId(UUID.randomUUID());
+                reference.setContactJobTitle("Head of recruitment");
+                reference.setVersion(3L);
+                list.add(reference);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        CompanyDTO company = new CompanyDTO();
+        company.setId(UUID.randomUUID());
+        company.setName("Seasonsforce");
+        company.setLogoUrl("https://cdn.seasonsforce.fr/logos/seasonsforce.png");
+        company.setDescription("Seasonal jobs platform");
+        company.setEmployeesNumberRange("10-49");
+        company.setAddressId(List.of(UUID.randomUUID(), UUID.randomUUID()));
+        company.setSiretNumber("12345678901234");
+        company.setDocumentsUrl(List.of("https://cdn.seasonsforce.fr/documents/kbis.pdf"));
+
+        RecruiterDTO recruiter = new RecruiterDTO();
+        recruiter.setId(UUID.randomUUID());
+        recruiter.setEmail("jane.doe@seasonsforce.fr");
+        recruiter.setFirstName("Jane");
+        recruiter.setLastName("Doe");
+        recruiter.setUsername("jane.doe");
+        recruiter.setCompanyId(company.getId());
+        recruiter.setOfferIdList(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+
+        detailedReference = new DetailedReferenceDTO();
+        detailedReference.setId(UUID.randomUUID());
+        detailedReference.setContactName("Jane Doe");
+        detailedReference.setContactJobTitle("Head of recruitment");
+        detailedReference.setCompany(company);
+        detailedReference.setContact(recruiter);
+    }
+
+    @Benchmark
+    public byte[] serializeReferences(References references) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(references.list);
+    }
+
+    @Benchmark
+    public byte[] serializeDetailedReference() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(detailedReference);
+    }
+}
@@ -0,0 +1,61 @@
+package fr.polytech.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${downstream.executor.pool-size:32}")
+    private int poolSize;
+
+    @Value("${downstream.executor.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${reference.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Executor used to call the downstream APIs (company, user) concurrently.
+     * The pool and its queue are bounded: when both are full, the caller thread runs the task itself.
+     * In the virtual thread mode, each call gets its own virtual thread, the bulkheads bounding the calls of each API.
+     *
+     * @return TaskExecutor for downstream calls
+     */
+    @Bean
+    public TaskExecutor downstreamExecutor() {
+        if (virtualThreads) {
+            return new ConcurrentTaskExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("downstream-", 0).factory()));
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("downstream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor of the asynchronous requests (streamed responses).
+     * Spring Boot only provides it when no other executor is defined, so it is declared here as it would have been.
+     *
+     * @param builder TaskExecutorBuilder configured from the spring.task.execution properties
+     * @return ThreadPoolTaskExecutor for asynchronous requests
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
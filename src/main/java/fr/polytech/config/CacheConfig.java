@@ -0,0 +1,88 @@
+package fr.polytech.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding the companies fetched from the company API.
+     */
+    public static final String COMPANY_CACHE = "company";
+
+    /**
+     * Name of the cache holding the recruiters fetched from the user API, and the ids of the missing ones.
+     */
+    public static final String RECRUITER_CACHE = "recruiter";
+
+    @Value("${cache.company.max-size:10000}")
+    private long companyMaxSize;
+
+    @Value("${cache.company.ttl:10m}")
+    private Duration companyTtl;
+
+    @Value("${cache.recruiter.max-size:10000}")
+    private long recruiterMaxSize;
+
+    @Value("${cache.recruiter.ttl:5m}")
+    private Duration recruiterTtl;
+
+    @Value("${cache.recruiter.negative-ttl:30s}")
+    private Duration recruiterNegativeTtl;
+
+    /**
+     * Cache manager holding the in-process caches of the downstream resources.
+     * Caches are registered with their statistics recorded, so that their hits, misses and evictions are published
+     * as metrics, and can be listed or cleared through the caches actuator endpoint.
+     *
+     * @return CacheManager
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches declared below can be used
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(COMPANY_CACHE, Caffeine.newBuilder()
+                .maximumSize(companyMaxSize)
+                .expireAfterWrite(companyTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(RECRUITER_CACHE, Caffeine.newBuilder()
+                .maximumSize(recruiterMaxSize)
+                .expireAfter(new NegativeAwareExpiry(recruiterTtl, recruiterNegativeTtl))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    /**
+     * Expiry policy keeping the cached null values (resources known to be missing) for a shorter time than the others.
+     */
+    private record NegativeAwareExpiry(Duration ttl, Duration negativeTtl) implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return (value == NullValue.INSTANCE ? negativeTtl : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
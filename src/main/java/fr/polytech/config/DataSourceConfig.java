@@ -0,0 +1,133 @@
+package fr.polytech.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Sends the read-only transactions to a read replica when spring.datasource.replica.url is set, the writes and the
+ * other transactions going to the primary database of spring.datasource. Each database has its own Hikari pool,
+ * configured by spring.datasource.hikari and spring.datasource.replica.hikari.
+ * The read-only transactions routed to the replica do not fill the second-level cache, see ReplicaTransactionManager.
+ * Without a replica, Spring Boot configures the single data source and the transaction manager as usual.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.datasource.replica.url")
+public class DataSourceConfig {
+
+    private final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Value("${reference.replica.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+
+    @Value("${reference.replica.read-your-writes-max-users:100000}")
+    private long readYourWritesMaxUsers;
+
+    /**
+     * Connection settings of the primary database.
+     *
+     * @return DataSourceProperties
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * Connection settings of the replica.
+     *
+     * @return DataSourceProperties
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * Connection pool of the primary database.
+     *
+     * @param properties Connection settings of the primary database
+     * @return HikariDataSource
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Connection pool of the replica, its connections being read-only.
+     *
+     * @param properties Connection settings of the replica
+     * @return HikariDataSource
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Users who wrote recently, reading from the primary.
+     *
+     * @return ReadYourWrites
+     */
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites(readYourWritesWindow, readYourWritesMaxUsers);
+    }
+
+    /**
+     * Data source of the application, routing each transaction to the primary or to the replica.
+     * The connection is only taken on the first statement, once the transaction is known to be read-only or not.
+     *
+     * @param primary        Connection pool of the primary database
+     * @param replica        Connection pool of the replica
+     * @param readYourWrites Users who wrote recently
+     * @return DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, @Qualifier("replicaDataSource") DataSource replica, ReadYourWrites readYourWrites) {
+        logger.info("Routing the read-only transactions to the replica, recent writers reading from the primary for {}", readYourWritesWindow);
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readYourWrites));
+    }
+
+    /**
+     * Transaction manager of the application, in place of the one of Spring Boot, keeping the reads of the replica out
+     * of the second-level cache.
+     *
+     * @param readYourWrites               Users who wrote recently
+     * @param transactionManagerCustomizers Customizers of the transaction manager
+     * @return JpaTransactionManager
+     */
+    @Bean
+    public JpaTransactionManager transactionManager(ReadYourWrites readYourWrites, ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new ReplicaTransactionManager(readYourWrites);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,256 @@
+package fr.polytech.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the HTTP clients of the downstream APIs, bound from the downstream.company.* and downstream.user.* properties.
+ */
+@ConfigurationProperties(prefix = "downstream")
+public class DownstreamProperties {
+
+    private Client company = new Client();
+    private Client user = new Client();
+
+    public Client getCompany() {
+        return company;
+    }
+
+    public void setCompany(Client company) {
+        this.company = company;
+    }
+
+    public Client getUser() {
+        return user;
+    }
+
+    public void setUser(Client user) {
+        this.user = user;
+    }
+
+    public static class Client {
+        /**
+         * Base URI of the API, the id of the resource being appended to it.
+         */
+        private String uri;
+        /**
+         * Maximum duration of a whole call, as seen by the caller.
+         */
+        private Duration timeout = Duration.ofSeconds(3);
+        /**
+         * Maximum duration to establish a connection.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        /**
+         * Maximum duration of inactivity while waiting for the response.
+         */
+        private Duration readTimeout = Duration.ofSeconds(3);
+        /**
+         * Maximum duration to wait for a connection of the pool when all of them are in use.
+         */
+        private Duration poolAcquireTimeout = Duration.ofMillis(500);
+        /**
+         * Maximum number of connections of the pool.
+         */
+        private int maxConnections = 100;
+        /**
+         * Maximum number of connections of the pool to a single host.
+         */
+        private int maxConnectionsPerRoute = 50;
+        /**
+         * Duration a connection is kept alive between two calls.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+        /**
+         * Duration after which an idle connection is closed by the background eviction.
+         */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        /**
+         * Circuit breaker of the API.
+         */
+        private Breaker breaker = new Breaker();
+        /**
+         * Bulkhead limiting the concurrent calls to the API.
+         */
+        private Bulkhead bulkhead = new Bulkhead();
+
+        public String getUri() {
+            return uri;
+        }
+
+        public void setUri(String uri) {
+            this.uri = uri;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getPoolAcquireTimeout() {
+            return poolAcquireTimeout;
+        }
+
+        public void setPoolAcquireTimeout(Duration poolAcquireTimeout) {
+            this.poolAcquireTimeout = poolAcquireTimeout;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Breaker getBreaker() {
+            return breaker;
+        }
+
+        public void setBreaker(Breaker breaker) {
+            this.breaker = breaker;
+        }
+
+        public Bulkhead getBulkhead() {
+            return bulkhead;
+        }
+
+        public void setBulkhead(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+    }
+
+    public static class Breaker {
+        /**
+         * Percentage of failed calls above which the circuit opens.
+         */
+        private float failureRateThreshold = 50;
+        /**
+         * Number of the last calls the failure rate is computed on.
+         */
+        private int slidingWindowSize = 20;
+        /**
+         * Minimum number of calls before the failure rate is computed.
+         */
+        private int minimumCalls = 10;
+        /**
+         * Duration the circuit stays open, failing the calls without making them.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+        /**
+         * Number of trial calls let through when the circuit is half open.
+         */
+        private int halfOpenCalls = 3;
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+
+    public static class Bulkhead {
+        /**
+         * Maximum number of concurrent calls to the API.
+         */
+        private int maxConcurrentCalls = 50;
+        /**
+         * Maximum duration a call waits for a free slot before being rejected.
+         */
+        private Duration maxWait = Duration.ZERO;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
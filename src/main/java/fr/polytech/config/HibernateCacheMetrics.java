@@ -0,0 +1,70 @@
+package fr.polytech.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the hits, misses and puts of the Hibernate second-level cache regions and of the query cache, read from the
+ * Hibernate statistics, under the names used by hibernate-micrometer. The hit ratio of a region is its hits over its
+ * hits and misses.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Register the counters of each cache region.
+     *
+     * @param registry Registry to register the counters with
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regionCounter(registry, statistics, region, "hit", CacheRegionStatistics::getHitCount);
+            regionCounter(registry, statistics, region, "miss", CacheRegionStatistics::getMissCount);
+            FunctionCounter.builder("hibernate.second.level.cache.puts", statistics,
+                            stats -> stats.getCacheRegionStatistics(region).getPutCount())
+                    .description("Entries put in a second-level cache region")
+                    .tag("region", region)
+                    .register(registry);
+        }
+        FunctionCounter.builder("hibernate.cache.query.requests", statistics, Statistics::getQueryCacheHitCount)
+                .description("Queries answered from the query cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.query.requests", statistics, Statistics::getQueryCacheMissCount)
+                .description("Queries not found in the query cache")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    /**
+     * Register the counter of the lookups of a region with a result.
+     *
+     * @param registry   Registry to register the counter with
+     * @param statistics Hibernate statistics
+     * @param region     Name of the region
+     * @param result     Result of the lookups, hit or miss
+     * @param count      Count of the lookups with this result in the region statistics
+     */
+    private void regionCounter(MeterRegistry registry, Statistics statistics, String region, String result, ToLongFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("hibernate.second.level.cache.requests", statistics,
+                        stats -> count.applyAsLong(stats.getCacheRegionStatistics(region)))
+                .description("Lookups of a second-level cache region")
+                .tag("region", region)
+                .tag("result", result)
+                .register(registry);
+    }
+}
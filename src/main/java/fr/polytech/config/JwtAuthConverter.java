@@ -1,5 +1,10 @@
 package fr.polytech.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
@@ -10,6 +15,8 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -21,33 +28,74 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
 
     private final JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter;
 
-    public JwtAuthConverter() {
-        this.jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+    private final String principleAttribute;
+    private final String resourceId;
+
+    /**
+     * Authorities of the tokens already converted, keyed by token value, each one kept until its token expires.
+     */
+    private final Cache<String, CachedAuthorities> authoritiesCache;
+
+    @Autowired
+    public JwtAuthConverter(@Value("${security.jwt.authorities-cache.max-size:10000}") long cacheMaxSize) {
+        this(System.getenv("PRINCIPLE_ATTRIBUTE_NAME"), System.getenv("RESOURCE_ID"), cacheMaxSize);
     }
 
-    private final String principleAttribute = System.getenv("PRINCIPLE_ATTRIBUTE_NAME");
-    private final String resourceId = System.getenv("RESOURCE_ID");
+    JwtAuthConverter(String principleAttribute, String resourceId, long cacheMaxSize) {
+        this.jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        this.principleAttribute = principleAttribute;
+        this.resourceId = resourceId;
+        this.authoritiesCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
 
     /**
      * Convert a Jwt to an AbstractAuthenticationToken
+     * The authorities are computed once per token and reused until it expires. The authentication itself is built for
+     * each request, as the filters attach request details to it.
      *
      * @param jwt Jwt to convert
      * @return AbstractAuthenticationToken
      */
     @Override
     public AbstractAuthenticationToken convert(@NonNull Jwt jwt) {
-        Collection<GrantedAuthority> authorities = Stream.concat(
-                jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
-                extractResourceRoles(jwt).stream()
-        ).collect(Collectors.toSet());
-
         return new JwtAuthenticationToken(
                 jwt,
-                authorities,
+                getAuthorities(jwt),
                 getPrincipleClaimName(jwt)
         );
     }
 
+    /**
+     * Get the authorities of a Jwt, from the cache if the same token was already converted
+     *
+     * @param jwt Jwt to get the authorities of
+     * @return Immutable collection of GrantedAuthority
+     */
+    private Collection<GrantedAuthority> getAuthorities(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            // A token that never expires is not cached, so that it cannot stay in memory forever
+            return extractAuthorities(jwt);
+        }
+        return authoritiesCache.get(jwt.getTokenValue(), tokenValue -> new CachedAuthorities(extractAuthorities(jwt), expiresAt)).authorities();
+    }
+
+    /**
+     * Extract the authorities of a Jwt, from its scopes and its resource roles
+     *
+     * @param jwt Jwt to extract the authorities from
+     * @return Immutable collection of GrantedAuthority
+     */
+    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
+        return Stream.concat(
+                jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
+                extractResourceRoles(jwt).stream()
+        ).collect(Collectors.toUnmodifiableSet());
+    }
+
     /**
      * Get the name of the principle from the Jwt
      *
@@ -73,7 +121,7 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
         }
         resourceAccess = jwt.getClaim("resource_access");
 
-        if (resourceAccess.get(resourceId) == null) {
+        if (resourceId == null || resourceAccess.get(resourceId) == null) {
             return Set.of();
         }
         resource = (Map<String, Object>) resourceAccess.get(resourceId);
@@ -84,4 +132,34 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                 .collect(Collectors.toSet());
     }
-}
\ No newline at end of file
+
+    /**
+     * Authorities of a token, with the expiry of the token
+     *
+     * @param authorities Authorities of the token
+     * @param expiresAt   Expiry of the token
+     */
+    private record CachedAuthorities(Collection<GrantedAuthority> authorities, Instant expiresAt) {
+    }
+
+    /**
+     * Expires each cached entry when its token expires
+     */
+    private static class UntilTokenExpiry implements Expiry<String, CachedAuthorities> {
+
+        @Override
+        public long expireAfterCreate(String tokenValue, CachedAuthorities cached, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), cached.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenValue, CachedAuthorities cached, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenValue, cached, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenValue, CachedAuthorities cached, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
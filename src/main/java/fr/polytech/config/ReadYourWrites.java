@@ -0,0 +1,146 @@
+package fr.polytech.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Clients who wrote recently, whose reads are sent to the primary database for a while so that they see their own writes
+ * even when the replica lags behind. The other clients keep reading from the replica.
+ * A write is recorded in a cookie sent back to the client, holding the time of the write, so that the next request sees
+ * it whichever instance serves it. It is also recorded for the authenticated user on this instance, for the clients
+ * that do not send the cookie back.
+ */
+public class ReadYourWrites {
+
+    /**
+     * Name of the cookie holding the time of the last write of the client, in milliseconds since the epoch.
+     */
+    public static final String LAST_WRITE_COOKIE = "reference-last-write";
+
+    private final Logger logger = LoggerFactory.getLogger(ReadYourWrites.class);
+
+    private final Duration window;
+
+    private final LongSupplier currentTimeMillis;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * Track the writers for a window.
+     *
+     * @param window     Duration during which a writer reads from the primary after each write.
+     * @param maxWriters Maximum number of users tracked on this instance.
+     */
+    public ReadYourWrites(Duration window, long maxWriters) {
+        this(window, maxWriters, Ticker.systemTicker(), System::currentTimeMillis);
+    }
+
+    ReadYourWrites(Duration window, long maxWriters, Ticker ticker, LongSupplier currentTimeMillis) {
+        this.window = window;
+        this.currentTimeMillis = currentTimeMillis;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxWriters)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Record that the current client has just written: in the cookie of the response, and for its user.
+     */
+    public void markCurrentUserAsWriter() {
+        HttpServletResponse response = currentResponse();
+        if (response != null && !response.isCommitted()) {
+            ResponseCookie cookie = ResponseCookie.from(LAST_WRITE_COOKIE, String.valueOf(currentTimeMillis.getAsLong()))
+                    .maxAge(window)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+
+        String user = currentUser();
+        if (user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        } else if (response == null) {
+            logger.warn("Write without a user nor a response to carry its time: the next reads of its client may miss it");
+        }
+    }
+
+    /**
+     * Tell whether the current client wrote within the window, according to its cookie or to its user.
+     *
+     * @return true if the reads of the current client must go to the primary.
+     */
+    public boolean isCurrentUserRecentWriter() {
+        Long lastWrite = lastWriteOfRequest();
+        if (lastWrite != null && currentTimeMillis.getAsLong() - lastWrite < window.toMillis()) {
+            return true;
+        }
+        String user = currentUser();
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    /**
+     * Get the time of the last write sent by the client of the current request.
+     *
+     * @return Time of the last write in milliseconds since the epoch, null if the request has no valid cookie.
+     */
+    private Long lastWriteOfRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the response of the current request.
+     *
+     * @return Response, null if the thread does not serve a request.
+     */
+    private static HttpServletResponse currentResponse() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getResponse() : null;
+    }
+
+    /**
+     * Get the name of the authenticated user of the current thread.
+     *
+     * @return Name of the user, null if the thread is not authenticated or its principal has no name.
+     */
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+    }
+}
@@ -0,0 +1,67 @@
+package fr.polytech.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends the connections of the read-only transactions to the replica and all the others to the primary.
+ * A user who just committed a write keeps reading from the primary for the window of ReadYourWrites.
+ * The transaction must be known when the connection is taken: wrap this data source in a LazyConnectionDataSourceProxy.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Key of the primary database.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Key of the replica database.
+     */
+    public static final String REPLICA = "replica";
+
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Route between two databases.
+     *
+     * @param primary        Primary database, taking the writes.
+     * @param replica        Replica of the primary.
+     * @param readYourWrites Recent writers, reading from the primary.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Select the database of the current connection.
+     * When a read-write transaction takes a connection, its user is recorded as a writer once it commits.
+     *
+     * @return PRIMARY or REPLICA
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWrites.markCurrentUserAsWriter();
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        return readYourWrites.isCurrentUserRecentWriter() ? PRIMARY : REPLICA;
+    }
+}
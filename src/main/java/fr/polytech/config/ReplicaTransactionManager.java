@@ -0,0 +1,53 @@
+package fr.polytech.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the reads of the replica out of the second-level cache.
+ * The replica may lag behind the primary: an entity or a query result read from it and put in the cache after a write
+ * would be served as current, to the writer included, until it expires. The transactions routed to the replica read
+ * the references by id from the cache without filling it, and skip the query cache; the other ones read and fill both.
+ */
+public class ReplicaTransactionManager extends JpaTransactionManager {
+
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Manage the JPA transactions of the entity manager factory of the context.
+     *
+     * @param readYourWrites Recent writers, whose read-only transactions go to the primary.
+     */
+    public ReplicaTransactionManager(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Begin a transaction, setting the cache mode of its session from the database it will be routed to, as
+     * ReplicaRoutingDataSource does once the first connection is taken.
+     *
+     * @param transaction Transaction object.
+     * @param definition  Definition of the transaction.
+     */
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder != null) {
+            boolean replicaRead = definition.isReadOnly() && !readYourWrites.isCurrentUserRecentWriter();
+            // The lookups by id follow the cache store mode of the entity manager: they still read the cache.
+            // The queries follow the cache mode of the session, and a query reading the query cache stores its result
+            // on a miss whatever the mode, so they neither read nor fill it.
+            EntityManager entityManager = holder.getEntityManager();
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, replicaRead ? CacheStoreMode.BYPASS : CacheStoreMode.USE);
+            entityManager.unwrap(Session.class).setCacheMode(replicaRead ? CacheMode.IGNORE : CacheMode.NORMAL);
+        }
+    }
+}
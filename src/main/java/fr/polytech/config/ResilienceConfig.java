@@ -0,0 +1,73 @@
+package fr.polytech.config;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Map;
+
+@Configuration
+public class ResilienceConfig {
+
+    /**
+     * Circuit breakers of the downstream APIs, one per API.
+     * Client errors (404, 401...) are answers of a healthy API and rejected calls were never made: neither counts as a failure.
+     *
+     * @param properties    Settings of the downstream APIs
+     * @param meterRegistry Registry the circuit breaker states are published to
+     * @return CircuitBreakerRegistry holding a circuit breaker per downstream API
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(DownstreamProperties properties, MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        clients(properties).forEach((downstream, client) -> {
+            DownstreamProperties.Breaker breaker = client.getBreaker();
+            registry.circuitBreaker(downstream, CircuitBreakerConfig.custom()
+                    .failureRateThreshold(breaker.getFailureRateThreshold())
+                    .slidingWindowSize(breaker.getSlidingWindowSize())
+                    .minimumNumberOfCalls(breaker.getMinimumCalls())
+                    .waitDurationInOpenState(breaker.getOpenDuration())
+                    .permittedNumberOfCallsInHalfOpenState(breaker.getHalfOpenCalls())
+                    .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+                    .build());
+        });
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Bulkheads of the downstream APIs, one per API, bounding the number of threads blocked on each of them.
+     *
+     * @param properties    Settings of the downstream APIs
+     * @param meterRegistry Registry the bulkhead usages are published to
+     * @return BulkheadRegistry holding a bulkhead per downstream API
+     */
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(DownstreamProperties properties, MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        clients(properties).forEach((downstream, client) -> registry.bulkhead(downstream, BulkheadConfig.custom()
+                .maxConcurrentCalls(client.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(client.getBulkhead().getMaxWait())
+                .build()));
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Get the settings of the downstream APIs by name.
+     *
+     * @param properties Settings of the downstream APIs
+     * @return Settings of each downstream API, keyed by its name
+     */
+    private Map<String, DownstreamProperties.Client> clients(DownstreamProperties properties) {
+        return Map.of("company", properties.getCompany(), "user", properties.getUser());
+    }
+}
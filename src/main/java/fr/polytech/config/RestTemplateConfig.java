@@ -1,16 +1,121 @@
 package fr.polytech.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableConfigurationProperties(DownstreamProperties.class)
 public class RestTemplateConfig {
 
+    /**
+     * Request factory of the company API, backed by its own connection pool.
+     *
+     * @param properties    Settings of the downstream APIs
+     * @param meterRegistry Registry the pool metrics are published to
+     * @return HttpComponentsClientHttpRequestFactory, closing its pool on shutdown
+     */
+    @Bean
+    public HttpComponentsClientHttpRequestFactory companyRequestFactory(DownstreamProperties properties, MeterRegistry meterRegistry) {
+        return createRequestFactory("company", properties.getCompany(), meterRegistry);
+    }
+
+    /**
+     * Request factory of the user API, backed by its own connection pool.
+     *
+     * @param properties    Settings of the downstream APIs
+     * @param meterRegistry Registry the pool metrics are published to
+     * @return HttpComponentsClientHttpRequestFactory, closing its pool on shutdown
+     */
+    @Bean
+    public HttpComponentsClientHttpRequestFactory userRequestFactory(DownstreamProperties properties, MeterRegistry meterRegistry) {
+        return createRequestFactory("user", properties.getUser(), meterRegistry);
+    }
+
+    @Bean
+    @LoadBalanced
+    public RestTemplate companyRestTemplate(@Qualifier("companyRequestFactory") HttpComponentsClientHttpRequestFactory requestFactory) {
+        return new RestTemplate(requestFactory);
+    }
+
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate userRestTemplate(@Qualifier("userRequestFactory") HttpComponentsClientHttpRequestFactory requestFactory) {
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Create a request factory using a pooled HTTP client.
+     * Each downstream API gets its own pool, so that a slow API cannot hold the connections of the others, and every
+     * wait (connection, response, connection of the pool) is bounded.
+     *
+     * @param downstream    Name of the downstream API
+     * @param client        Settings of the HTTP client
+     * @param meterRegistry Registry the pool metrics are published to
+     * @return HttpComponentsClientHttpRequestFactory
+     */
+    private HttpComponentsClientHttpRequestFactory createRequestFactory(String downstream, DownstreamProperties.Client client, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(client.getMaxConnections())
+                .setMaxConnPerRoute(client.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(client.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(client.getReadTimeout()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(client.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(client.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(client.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(client.getIdleTimeout()))
+                .build();
+
+        registerPoolMetrics(downstream, connectionManager, meterRegistry);
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Publish the usage of a connection pool: a pending count above zero means the pool is saturated.
+     *
+     * @param downstream        Name of the downstream API
+     * @param connectionManager Connection pool
+     * @param meterRegistry     Registry the metrics are published to
+     */
+    private void registerPoolMetrics(String downstream, PoolingHttpClientConnectionManager connectionManager, MeterRegistry meterRegistry) {
+        Gauge.builder("http.client.pool.leased", connectionManager, manager -> manager.getTotalStats().getLeased())
+                .description("Connections in use")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.available", connectionManager, manager -> manager.getTotalStats().getAvailable())
+                .description("Idle connections")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", connectionManager, manager -> manager.getTotalStats().getPending())
+                .description("Requests waiting for a connection")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.max", connectionManager, manager -> manager.getTotalStats().getMax())
+                .description("Maximum number of connections")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
     }
 }
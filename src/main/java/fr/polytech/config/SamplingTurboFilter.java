@@ -0,0 +1,119 @@
+package fr.polytech.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Logback filter keeping at most maxPerSecond events per second of each logger under the configured prefixes, so that
+ * a logger called on every request cannot flood the appenders at high load. Only the events up to the configured level
+ * (INFO by default) are sampled: warnings and errors always pass. Declared in logback-spring.xml.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    /**
+     * Bits of the window state holding the count, the others holding the second of the window.
+     */
+    private static final int COUNT_BITS = 24;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+
+    private final Map<String, AtomicLong> windows = new ConcurrentHashMap<>();
+
+    private final AtomicLong denied = new AtomicLong();
+
+    private final LongSupplier clock;
+
+    private int maxPerSecond = 100;
+
+    private Level level = Level.INFO;
+
+    public SamplingTurboFilter() {
+        this(System::currentTimeMillis);
+    }
+
+    SamplingTurboFilter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Add a prefix of the sampled loggers, called by Logback for each loggerPrefix element.
+     *
+     * @param loggerPrefix Prefix of the logger names.
+     */
+    public void addLoggerPrefix(String loggerPrefix) {
+        loggerPrefixes.add(loggerPrefix);
+    }
+
+    /**
+     * Set the number of events kept per second and per logger.
+     *
+     * @param maxPerSecond Number of events.
+     */
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = Math.min(maxPerSecond, (int) COUNT_MASK);
+    }
+
+    /**
+     * Set the most severe level sampled.
+     *
+     * @param level Name of the level.
+     */
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    /**
+     * Get the number of events dropped since the start.
+     *
+     * @return Number of events.
+     */
+    public long getDenied() {
+        return denied.get();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level eventLevel, String format, Object[] params, Throwable t) {
+        // Called before the level check: disabled events are left to it and not counted
+        if (!isStarted() || eventLevel.toInt() > level.toInt()
+                || !eventLevel.isGreaterOrEqual(logger.getEffectiveLevel()) || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        AtomicLong window = windows.computeIfAbsent(logger.getName(), name -> new AtomicLong());
+        long second = clock.getAsLong() / 1000;
+        long state = window.updateAndGet(current -> current >>> COUNT_BITS == second
+                ? Math.min(current + 1, (second << COUNT_BITS) | COUNT_MASK)
+                : (second << COUNT_BITS) | 1);
+        if ((state & COUNT_MASK) > maxPerSecond) {
+            denied.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    /**
+     * Check whether a logger is sampled.
+     *
+     * @param loggerName Name of the logger.
+     * @return true if its name starts with one of the prefixes.
+     */
+    private boolean isSampled(String loggerName) {
+        for (String loggerPrefix : loggerPrefixes) {
+            if (loggerName.startsWith(loggerPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
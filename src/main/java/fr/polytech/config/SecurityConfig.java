@@ -1,13 +1,37 @@
 package fr.polytech.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 
 @Configuration
@@ -15,7 +39,31 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 @EnableMethodSecurity
 public class SecurityConfig {
 
-    private final JwtAuthConverter jwtAuthConverter = new JwtAuthConverter();
+    private final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
+    @Autowired
+    private JwtAuthConverter jwtAuthConverter;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuerUri;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${security.jwt.jwk-set.ttl:15m}")
+    private Duration jwkSetTtl;
+
+    @Value("${security.jwt.jwk-set.refresh-timeout:5s}")
+    private Duration jwkSetRefreshTimeout;
+
+    @Value("${security.jwt.jwk-set.refresh-ahead:1m}")
+    private Duration jwkSetRefreshAhead;
+
+    @Value("${security.jwt.jwk-set.min-refresh-interval:30s}")
+    private Duration jwkSetMinRefreshInterval;
+
+    @Value("${security.jwt.jwk-set.warm-up:true}")
+    private boolean jwkSetWarmUp;
 
     /**
      * Configure the security filter chain to intercept all requests
@@ -28,7 +76,10 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
-                .authorizeHttpRequests((auth) -> auth.anyRequest().authenticated());
+                .authorizeHttpRequests((auth) -> auth
+                        // Actuator endpoints other than health (caches, metrics) are reserved to the admins
+                        .requestMatchers(EndpointRequest.toAnyEndpoint().excluding(HealthEndpoint.class)).hasRole("client_admin")
+                        .anyRequest().authenticated());
 
         http
                 .oauth2ResourceServer((oauth2) -> oauth2
@@ -42,4 +93,63 @@ public class SecurityConfig {
 
         return http.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Keys of the issuer, kept in memory.
+     * The set is refreshed in the background before it expires, and fetched again, at most once per minimum refresh
+     * interval, when a token is signed with an unknown key. If the issuer is down, the last keys keep being used.
+     *
+     * @return JWKSource of the issuer, closed on shutdown
+     * @throws MalformedURLException if the JWK set URI is not valid
+     */
+    @Bean
+    public JWKSource<SecurityContext> jwkSource() throws MalformedURLException {
+        return JWKSourceBuilder.<SecurityContext>create(new URL(jwkSetUri))
+                .cache(jwkSetTtl.toMillis(), jwkSetRefreshTimeout.toMillis())
+                .refreshAheadCache(jwkSetRefreshAhead.toMillis(), true)
+                .rateLimited(jwkSetMinRefreshInterval.toMillis())
+                .outageTolerant(true)
+                .build();
+    }
+
+    /**
+     * Decoder of the access tokens, checking their signature with the in-memory keys of the issuer and their claims
+     * (expiry, issuer) as Spring Boot would.
+     *
+     * @param jwkSource Keys of the issuer
+     * @return JwtDecoder
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // The claims are checked by the validators of the decoder
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return jwtDecoder;
+    }
+
+    /**
+     * Fetch the keys of the issuer at startup, so that the first requests do not wait for them.
+     *
+     * @param jwkSource Keys of the issuer
+     * @return ApplicationListener run once the application is ready
+     */
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> jwkSetWarmUp(JWKSource<SecurityContext> jwkSource) {
+        return event -> {
+            if (!jwkSetWarmUp) {
+                return;
+            }
+            try {
+                int keys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size();
+                logger.info("Loaded {} keys from the JWK set", keys);
+            } catch (KeySourceException e) {
+                logger.warn("Unable to load the JWK set, it will be fetched on the first request: {}", e.getMessage());
+            }
+        };
+    }
+}
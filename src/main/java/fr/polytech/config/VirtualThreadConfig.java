@@ -0,0 +1,33 @@
+package fr.polytech.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the requests on virtual threads instead of the Tomcat thread pool, when reference.virtual-threads.enabled is set.
+ * A request blocked in JDBC or in a downstream call then only holds a virtual thread: the number of requests in
+ * flight is no longer bounded by server.tomcat.threads.max, but by the connection pools and the bulkheads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reference.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    /**
+     * Replace the executor of the Tomcat connector by one starting a virtual thread per request.
+     *
+     * @return TomcatProtocolHandlerCustomizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        logger.info("Serving the requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tomcat-", 0).factory()));
+    }
+}
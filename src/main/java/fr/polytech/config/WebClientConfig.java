@@ -0,0 +1,94 @@
+package fr.polytech.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * Builder of the non-blocking HTTP clients, resolving the service names through the load balancer.
+     *
+     * @return WebClient.Builder
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+
+    /**
+     * Connection pool of the non-blocking company API client.
+     *
+     * @param properties Settings of the downstream APIs
+     * @return ConnectionProvider, disposed on shutdown
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider companyConnectionProvider(DownstreamProperties properties) {
+        return createConnectionProvider("company", properties.getCompany());
+    }
+
+    /**
+     * Connection pool of the non-blocking user API client.
+     *
+     * @param properties Settings of the downstream APIs
+     * @return ConnectionProvider, disposed on shutdown
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider userConnectionProvider(DownstreamProperties properties) {
+        return createConnectionProvider("user", properties.getUser());
+    }
+
+    @Bean
+    public WebClient companyWebClient(@LoadBalanced WebClient.Builder builder, @Qualifier("companyConnectionProvider") ConnectionProvider connectionProvider,
+                                      DownstreamProperties properties) {
+        return createWebClient(builder, connectionProvider, properties.getCompany());
+    }
+
+    @Bean
+    public WebClient userWebClient(@LoadBalanced WebClient.Builder builder, @Qualifier("userConnectionProvider") ConnectionProvider connectionProvider,
+                                   DownstreamProperties properties) {
+        return createWebClient(builder, connectionProvider, properties.getUser());
+    }
+
+    /**
+     * Create a connection pool with the same bounds as the blocking client of the API.
+     *
+     * @param downstream Name of the downstream API
+     * @param client     Settings of the HTTP client
+     * @return ConnectionProvider
+     */
+    private ConnectionProvider createConnectionProvider(String downstream, DownstreamProperties.Client client) {
+        return ConnectionProvider.builder(downstream)
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireTimeout(client.getPoolAcquireTimeout())
+                .maxIdleTime(client.getIdleTimeout())
+                .maxLifeTime(client.getKeepAlive())
+                .evictInBackground(client.getIdleTimeout())
+                .build();
+    }
+
+    /**
+     * Create a non-blocking HTTP client of a downstream API, on top of its own connection pool.
+     *
+     * @param builder            Load balanced builder, cloned so that the clients do not share their settings
+     * @param connectionProvider Connection pool of the API
+     * @param client             Settings of the HTTP client
+     * @return WebClient
+     */
+    private WebClient createWebClient(WebClient.Builder builder, ConnectionProvider connectionProvider, DownstreamProperties.Client client) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+                .responseTimeout(client.getReadTimeout());
+        return builder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
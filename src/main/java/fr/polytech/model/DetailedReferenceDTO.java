@@ -2,14 +2,29 @@ package fr.polytech.model;
 
 import fr.polytech.model.user.RecruiterDTO;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class DetailedReferenceDTO {
+    /**
+     * Section filled from the company API.
+     */
+    public static final String COMPANY_SECTION = "company";
+    /**
+     * Section filled from the user API.
+     */
+    public static final String CONTACT_SECTION = "contact";
+
     private UUID id;
     private String contactName;
     private CompanyDTO company;
     private RecruiterDTO contact;
     private String contactJobTitle;
+    /**
+     * Sections left empty because their resource was not found or their API was unavailable.
+     */
+    private List<String> missing = new ArrayList<>();
 
     public UUID getId() {
         return id;
@@ -50,5 +65,12 @@ public class DetailedReferenceDTO {
     public void setContactJobTitle(String contactJobTitle) {
         this.contactJobTitle = contactJobTitle;
     }
-}
 
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+}
@@ -1,13 +1,23 @@
 package fr.polytech.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
 @Entity
 @Table(name = "reference", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Reference.CACHE_REGION)
 public class Reference {
 
+    /**
+     * Second-level cache region of the references, configured in application.conf.
+     */
+    public static final String CACHE_REGION = "reference";
+
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -19,6 +29,9 @@ public class Reference {
     private UUID contactId;
     private String contactJobTitle;
 
+    @Version
+    private Long version;
+
     public UUID getId() {
         return id;
     }
@@ -59,6 +72,14 @@ public class Reference {
         this.contactJobTitle = contactJobTitle;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Reference{" +
@@ -67,6 +88,7 @@ public class Reference {
                 ", companyId=" + companyId +
                 ", contactId=" + contactId +
                 ", contactJobTitle='" + contactJobTitle + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
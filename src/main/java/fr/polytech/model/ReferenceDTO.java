@@ -8,6 +8,7 @@ public class ReferenceDTO {
     private UUID companyId;
     private UUID contactId;
     private String contactJobTitle;
+    private Long version;
 
     public UUID getId() {
         return id;
@@ -48,4 +49,12 @@ public class ReferenceDTO {
     public void setContactJobTitle(String contactJobTitle) {
         this.contactJobTitle = contactJobTitle;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
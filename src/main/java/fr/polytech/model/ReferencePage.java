@@ -0,0 +1,32 @@
+package fr.polytech.model;
+
+import java.util.List;
+
+public class ReferencePage {
+    private List<ReferenceView> references;
+    private String nextCursor;
+
+    public ReferencePage() {
+    }
+
+    public ReferencePage(List<ReferenceView> references, String nextCursor) {
+        this.references = references;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReferenceView> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<ReferenceView> references) {
+        this.references = references;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,9 @@
+package fr.polytech.model;
+
+import java.util.UUID;
+
+/**
+ * Id and version of a reference, enough to tell whether it changed without loading it.
+ */
+public record ReferenceVersion(UUID id, Long version) {
+}
@@ -0,0 +1,10 @@
+package fr.polytech.model;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of a reference, built straight from the query results without any managed entity.
+ * It is serialized the same way as a Reference.
+ */
+public record ReferenceView(UUID id, String contact, UUID companyId, UUID contactId, String contactJobTitle, Long version) {
+}
@@ -1,23 +1,127 @@
 package fr.polytech.repository;
 
 import fr.polytech.model.Reference;
+import fr.polytech.model.ReferenceVersion;
+import fr.polytech.model.ReferenceView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReferenceRepository extends JpaRepository<Reference, UUID> {
 
     /**
-     * Find all references by contact id.
+     * Query cache region of the references by contact id, configured in application.conf.
+     */
+    String BY_CONTACT_CACHE_REGION = "reference-by-contact";
+
+    /**
+     * Find all references by contact id, as read-only views.
+     * The result is kept in the query cache until a reference is written.
      *
      * @param id Contact id.
      * @return List of references.
      */
-    @Query("SELECT r FROM Reference r WHERE r.contactId = :id")
-    List<Reference> findByContactId(@Param("id") UUID id);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceRepository.BY_CONTACT_CACHE_REGION)
+    })
+    @Query("SELECT new fr.polytech.model.ReferenceView(r.id, r.contact, r.companyId, r.contactId, r.contactJobTitle, r.version) FROM Reference r WHERE r.contactId = :id")
+    List<ReferenceView> findByContactId(@Param("id") UUID id);
+
+    /**
+     * Find a reference from the database, never from the second-level cache, which may hold a row written since by
+     * another instance. Meant for the write paths: the loaded reference replaces the cached one.
+     *
+     * @param id Reference id.
+     * @return Reference as stored, empty if there is no reference with this id.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    @Query("SELECT r FROM Reference r WHERE r.id = :id")
+    Optional<Reference> findStoredById(@Param("id") UUID id);
+
+    /**
+     * Find the version of a reference, without loading it.
+     *
+     * @param id Reference id.
+     * @return Version of the reference, empty if there is no reference with this id.
+     */
+    @Query("SELECT r.version FROM Reference r WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Find the ids and versions of the references of a contact, without loading them.
+     *
+     * @param id Contact id.
+     * @return Ids and versions of the references.
+     */
+    @Query("SELECT new fr.polytech.model.ReferenceVersion(r.id, r.version) FROM Reference r WHERE r.contactId = :id")
+    List<ReferenceVersion> findVersionsByContactId(@Param("id") UUID id);
+
+    /**
+     * Find the first references ordered by id, as read-only views.
+     *
+     * @param pageable Page holding the maximum number of references.
+     * @return List of references.
+     */
+    @Query("SELECT new fr.polytech.model.ReferenceView(r.id, r.contact, r.companyId, r.contactId, r.contactJobTitle, r.version) FROM Reference r ORDER BY r.id")
+    List<ReferenceView> findFirstPage(Pageable pageable);
+
+    /**
+     * Find the references whose id comes after the given one, ordered by id, as read-only views.
+     * Seeking on the primary key keeps the cost of a page constant, however deep it is.
+     *
+     * @param cursor   Id of the last reference of the previous page.
+     * @param pageable Page holding the maximum number of references.
+     * @return List of references.
+     */
+    @Query("SELECT new fr.polytech.model.ReferenceView(r.id, r.contact, r.companyId, r.contactId, r.contactJobTitle, r.version) FROM Reference r WHERE r.id > :cursor ORDER BY r.id")
+    List<ReferenceView> findPageAfter(@Param("cursor") UUID cursor, Pageable pageable);
+
+    /**
+     * Stream all the references from a forward-only cursor, fetching the rows in chunks.
+     * The references are not put in the second-level cache, which an export would otherwise flush.
+     * The stream must be consumed, then closed, inside a transaction.
+     *
+     * @return Stream of all the references.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT r FROM Reference r")
+    Stream<Reference> streamAll();
+
+    /**
+     * Delete references with a single statement, without loading them.
+     *
+     * @param ids Reference ids.
+     * @return Number of deleted references.
+     */
+    @Modifying
+    @Query("DELETE FROM Reference r WHERE r.id IN :ids")
+    int deleteReferencesByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Delete all the references of a contact with a single statement, without loading them.
+     *
+     * @param id Contact id.
+     * @return Number of deleted references.
+     */
+    @Modifying
+    @Query("DELETE FROM Reference r WHERE r.contactId = :id")
+    int deleteReferencesByContactId(@Param("id") UUID id);
 }
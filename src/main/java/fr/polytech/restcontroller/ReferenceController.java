@@ -5,26 +5,48 @@ import fr.polytech.annotation.IsCandidate;
 import fr.polytech.model.DetailedReferenceDTO;
 import fr.polytech.model.Reference;
 import fr.polytech.model.ReferenceDTO;
+import fr.polytech.model.ReferencePage;
+import fr.polytech.model.ReferenceView;
+import fr.polytech.service.ReferenceEtag;
 import fr.polytech.service.ReferenceService;
+import fr.polytech.service.ServerTiming;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.Produces;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/reference")
 public class ReferenceController {
 
+    /**
+     * Header holding the cursor of the next page of references.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     /**
      * Initialize the logger.
      */
@@ -33,29 +55,142 @@ public class ReferenceController {
     @Autowired
     private ReferenceService referenceService;
 
+    @Value("${reference.server-timing.enabled:false}")
+    private boolean serverTimingEnabled;
+
+    @Value("${reference.export.timeout:30m}")
+    private Duration exportTimeout;
+
     /**
-     * Get all references.
+     * Get all references, page by page.
+     * The body is the list of the references of the page. The cursor of the next page, if there is one, is sent in the
+     * X-Next-Cursor header and as the next link of the Link header.
      *
-     * @return List of all references.
+     * @param cursor Cursor returned with the previous page, omitted for the first page.
+     * @param size   Number of references per page, omitted for the default size.
+     * @return References of the page.
      */
     @GetMapping("/")
     @IsAdmin
     @Produces(MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<Reference>> getAllReferences() {
-        return ResponseEntity.ok(referenceService.getAllReferences());
+    public ResponseEntity<List<ReferenceView>> getAllReferences(@RequestParam(value = "cursor", required = false) String cursor, @RequestParam(value = "size", required = false) Integer size) {
+        try {
+            ReferencePage page = referenceService.getReferencePage(cursor, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                        .replaceQueryParam("cursor", page.getNextCursor())
+                        .toUriString();
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                        .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            }
+            return response.body(page.getReferences());
+        } catch (HttpClientErrorException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Export all references as newline-delimited JSON, streamed as they are read from the database.
+     * The export runs under its own timeout, long enough for the whole table, the other asynchronous requests keeping
+     * the default one.
+     *
+     * @param acceptEncoding Encodings accepted by the client, the export being gzipped if gzip is one of them.
+     * @param response       Response the references are written to.
+     * @return Task streaming the references, one JSON object per line.
+     */
+    @GetMapping("/export")
+    @IsAdmin
+    @Produces(MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportReferences(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding, HttpServletResponse response) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            OutputStream outputStream = StreamUtils.nonClosing(response.getOutputStream());
+            if (gzip) {
+                try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192)) {
+                    referenceService.exportReferences(gzipOutputStream);
+                }
+            } else {
+                referenceService.exportReferences(outputStream);
+            }
+            outputStream.flush();
+            return null;
+        });
+    }
+
+    /**
+     * Check whether an Accept-Encoding header accepts gzip, as RFC 9110 reads it: a coding with a zero weight is not
+     * acceptable, and "*" stands for the codings the header does not list.
+     *
+     * @param acceptEncoding Value of the Accept-Encoding header, null if the request has none.
+     * @return true if the response may be gzipped.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean any = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            boolean acceptable = weight(parameters) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == Boolean.TRUE || acceptable;
+            } else if (coding.equals("*")) {
+                any = acceptable;
+            }
+        }
+        return gzip != null ? gzip : any;
+    }
+
+    /**
+     * Get the weight of an element of an Accept-Encoding header.
+     *
+     * @param parameters Coding of the element followed by its parameters.
+     * @return Weight of the element, 1 if it has none, 0 if it is not valid.
+     */
+    private static double weight(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
     }
 
     /**
      * Get reference by id.
+     * If the client sent the entity tag of the current version, a 304 is answered without loading the reference.
+     * Otherwise the entity tag sent is the one of the reference returned, not of the version checked first.
      *
-     * @param id Reference id.
+     * @param id          Reference id.
+     * @param ifNoneMatch Entity tags held by the client, if any.
      * @return Reference with the specified id.
      */
     @GetMapping("/{id}")
     @Produces(MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Reference> getReferenceById(@PathVariable("id") UUID id) {
+    public ResponseEntity<Reference> getReferenceById(@PathVariable("id") UUID id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(referenceService.getReferenceById(id));
+            if (ifNoneMatch != null) {
+                String etag = referenceService.getReferenceEtag(id);
+                if (ReferenceEtag.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            Reference reference = referenceService.getReferenceById(id);
+            return ResponseEntity.ok().eTag(ReferenceEtag.of(reference)).body(reference);
         } catch (HttpClientErrorException e) {
             return ResponseEntity.notFound().build();
         }
@@ -63,31 +198,82 @@ public class ReferenceController {
 
     /**
      * Get detailed reference by id.
+     * The response is deferred: no request thread is held while the company and user APIs answer.
+     * When reference.server-timing.enabled is set, the durations of the database, company and user phases and the total
+     * are sent in the Server-Timing header.
      *
      * @param id Reference id.
-     * @return Reference with the specified id.
+     * @return Future of the reference with the specified id.
      */
     @GetMapping("/detailed/{id}")
     @Produces(MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<DetailedReferenceDTO> getDetailedReferenceById(@PathVariable("id") UUID id, @RequestHeader("Authorization") String token) {
+    public CompletableFuture<ResponseEntity<DetailedReferenceDTO>> getDetailedReferenceById(@PathVariable("id") UUID id, @RequestHeader("Authorization") String token) {
+        ServerTiming timing = serverTimingEnabled ? new ServerTiming() : ServerTiming.DISABLED;
+        return referenceService.getDetailedReferenceByIdAsync(id, token, timing)
+                .thenApply(detailedReference -> withServerTiming(ResponseEntity.ok(), timing).body(detailedReference))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof HttpClientErrorException) {
+                        return withServerTiming(ResponseEntity.status(HttpStatus.NOT_FOUND), timing).build();
+                    }
+                    if (cause instanceof HttpServerErrorException serverError) {
+                        return withServerTiming(ResponseEntity.status(serverError.getStatusCode()), timing).build();
+                    }
+                    throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+                });
+    }
+
+    /**
+     * Add the Server-Timing header to a response if the request was timed.
+     *
+     * @param response Response being built.
+     * @param timing   Timing of the request.
+     * @return Response being built.
+     */
+    private ResponseEntity.BodyBuilder withServerTiming(ResponseEntity.BodyBuilder response, ServerTiming timing) {
+        if (timing.isEnabled()) {
+            response.header(ServerTiming.HEADER, timing.toHeaderValue());
+        }
+        return response;
+    }
+
+    /**
+     * Get detailed references by ids.
+     *
+     * @param ids Reference ids.
+     * @return Detailed references with the specified ids, unknown ids being skipped.
+     */
+    @PostMapping("/detailed/batch")
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<DetailedReferenceDTO>> getDetailedReferencesByIds(@RequestBody List<UUID> ids, @RequestHeader("Authorization") String token) {
         try {
-            return ResponseEntity.ok(referenceService.getDetailedReferenceById(id, token));
+            return ResponseEntity.ok(referenceService.getDetailedReferencesByIds(ids, token));
         } catch (HttpClientErrorException e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.status(e.getStatusCode()).build();
         }
     }
 
     /**
      * Get reference by user id.
+     * If the client sent the entity tag of the current references, a 304 is answered without loading them.
      *
-     * @param id User id (contact id).
+     * @param id          User id (contact id).
+     * @param ifNoneMatch Entity tags held by the client, if any.
      * @return List of references with the specified user id.
      */
     @GetMapping("/user/{id}")
     @Produces(MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<Reference>> getReferenceByUserId(@PathVariable("id") UUID id) {
+    public ResponseEntity<List<ReferenceView>> getReferenceByUserId(@PathVariable("id") UUID id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(referenceService.getReferenceByUserId(id));
+            if (ifNoneMatch != null) {
+                String etag = referenceService.getReferencesEtagByUserId(id);
+                if (ReferenceEtag.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            List<ReferenceView> references = referenceService.getReferenceByUserId(id);
+            return ResponseEntity.ok().eTag(ReferenceEtag.ofViews(references)).body(references);
         } catch (HttpClientErrorException e) {
             return ResponseEntity.notFound().build();
         }
@@ -107,13 +293,33 @@ public class ReferenceController {
         try {
             Reference createdReference = referenceService.createReference(reference);
             logger.info("Completed creation of a reference");
-            logger.debug("Created new reference: " + createdReference.toString());
+            logger.debug("Created new reference: {}", createdReference);
             return new ResponseEntity<>(createdReference, HttpStatus.CREATED);
         } catch (HttpClientErrorException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Create references in a single transaction.
+     *
+     * @param references References to create.
+     * @return Created references.
+     */
+    @PostMapping("/bulk")
+    @IsCandidate
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Reference>> createReferences(@RequestBody List<ReferenceDTO> references) {
+        try {
+            List<Reference> createdReferences = referenceService.createReferences(references);
+            logger.info("Completed creation of {} references", createdReferences.size());
+            return new ResponseEntity<>(createdReferences, HttpStatus.CREATED);
+        } catch (HttpClientErrorException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Update a reference.
      *
@@ -128,15 +334,39 @@ public class ReferenceController {
         try {
             Reference updatedReference = referenceService.updateReference(reference);
             logger.info("Completed update of a reference");
-            logger.debug("Updated reference: " + updatedReference.toString());
+            logger.debug("Updated reference: {}", updatedReference);
             return ResponseEntity.ok(updatedReference);
         } catch (NotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.CONFLICT)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Partially update a reference.
+     *
+     * @param id      Reference id.
+     * @param changes Attributes to update, with the version of the reference they were made on.
+     * @return New version of the reference.
+     */
+    @PatchMapping("/{id}")
+    @IsCandidate
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Long> patchReference(@PathVariable("id") UUID id, @RequestBody ReferenceDTO changes) {
+        try {
+            long version = referenceService.patchReference(id, changes);
+            logger.info("Completed partial update of a reference");
+            return ResponseEntity.ok().eTag(ReferenceEtag.ofVersion(version)).body(version);
+        } catch (HttpClientErrorException e) {
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
     /**
      * Delete a reference.
      *
@@ -151,10 +381,45 @@ public class ReferenceController {
 
             referenceService.deleteReference(id);
             logger.info("Completed deletion of a reference");
-            logger.debug("Deleted reference with id " + id);
+            logger.debug("Deleted reference with id {}", id);
             return ResponseEntity.ok(true);
         } catch (HttpClientErrorException e) {
             return new ResponseEntity<>(false, e.getStatusCode());
         }
     }
+
+    /**
+     * Delete references by ids.
+     *
+     * @param ids Reference ids.
+     * @return Number of deleted references.
+     */
+    @PostMapping("/bulk/delete")
+    @IsAdmin
+    @Consumes(MediaType.APPLICATION_JSON_VALUE)
+    @Produces(MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Integer> deleteReferences(@RequestBody List<UUID> ids) {
+        try {
+            int deleted = referenceService.deleteReferences(ids);
+            logger.info("Completed deletion of {} references", deleted);
+            return ResponseEntity.ok(deleted);
+        } catch (HttpClientErrorException e) {
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
+    /**
+     * Delete all the references of a user, when cleaning up an account.
+     *
+     * @param id User id (contact id).
+     * @return Number of deleted references.
+     */
+    @DeleteMapping("/user/{id}")
+    @IsAdmin
+    @Produces(MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Integer> deleteReferencesByUserId(@PathVariable("id") UUID id) {
+        int deleted = referenceService.deleteReferencesByUserId(id);
+        logger.info("Completed deletion of {} references of a user", deleted);
+        return ResponseEntity.ok(deleted);
+    }
 }
@@ -1,11 +1,21 @@
 package fr.polytech.service;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
@@ -13,12 +23,40 @@ public class ApiService {
 
     private final Logger logger = LoggerFactory.getLogger(ApiService.class);
 
+    /**
+     * Name of the company API.
+     */
+    public static final String COMPANY = "company";
+
+    /**
+     * Name of the user API.
+     */
+    public static final String USER = "user";
+
+    @Autowired
+    @Qualifier("companyRestTemplate")
+    private RestTemplate companyRestTemplate;
+
+    @Autowired
+    @Qualifier("userRestTemplate")
+    private RestTemplate userRestTemplate;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
     @Autowired
-    private RestTemplate restTemplate;
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private DownstreamMetrics downstreamMetrics;
 
     /**
      * Make an API call.
+     * The call goes through the bulkhead and the circuit breaker of the API, so a slow or failing API is not called
+     * beyond its limits and fails fast instead. Its duration is recorded by the downstream timer, tagged with the API
+     * and the response status.
      *
+     * @param downstream   Name of the called API (COMPANY or USER), selecting its HTTP client
      * @param uri          URI of the API
      * @param method       HTTP method
      * @param responseType Class of the response
@@ -26,19 +64,66 @@ public class ApiService {
      * @param <T>          Type of the response
      * @return Response
      * @throws HttpClientErrorException if an error occurs while calling the API
+     * @throws HttpServerErrorException if the API is unavailable, unreachable or rejects the call
      */
-    public <T> T makeApiCall(String uri, HttpMethod method, Class<T> responseType, String token) throws HttpClientErrorException {
-        logger.info("Making API call to {}", uri);
+    public <T> T makeApiCall(String downstream, String uri, HttpMethod method, Class<T> responseType, String token) throws HttpClientErrorException, HttpServerErrorException {
+        logger.debug("Making API call to {}", uri);
         HttpHeaders headers = createHeaders(token);
         HttpEntity<Void> entity = new HttpEntity<>(null, headers);
-        ResponseEntity<T> response = restTemplate.exchange(uri, method, entity, responseType);
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            return response.getBody();
-        } else {
-            throw new HttpClientErrorException(response.getStatusCode());
+        RestTemplate restTemplate = getRestTemplate(downstream);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(downstream);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(downstream);
+        Timer.Sample sample = downstreamMetrics.start();
+        try {
+            ResponseEntity<T> response;
+            try {
+                response = circuitBreaker.executeSupplier(
+                        Bulkhead.decorateSupplier(bulkhead, () -> restTemplate.exchange(uri, method, entity, responseType)));
+            } catch (RuntimeException e) {
+                downstreamMetrics.stop(sample, downstream, method, DownstreamMetrics.status(e));
+                throw e;
+            }
+            downstreamMetrics.stop(sample, downstream, method, String.valueOf(response.getStatusCode().value()));
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.OK) && response.getBody() != null) {
+                return response.getBody();
+            } else {
+                throw new HttpClientErrorException(response.getStatusCode());
+            }
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            logger.warn("Call to {} API rejected: {}", downstream, e.getMessage());
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ResourceAccessException e) {
+            logger.warn("{} API unreachable: {}", downstream, e.getMessage());
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
         }
     }
 
+    /**
+     * Tell whether an API call failed because the resource was not found.
+     * Unlike an authentication or authorization failure, this holds whatever the token of the caller, so concurrent
+     * lookups of the same resource can share it.
+     *
+     * @param failure Failure of the API call
+     * @return True if the API answered 404
+     */
+    public static boolean isNotFound(Throwable failure) {
+        return failure instanceof HttpClientErrorException e && e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Get the HTTP client of a downstream API.
+     *
+     * @param downstream Name of the downstream API
+     * @return RestTemplate of the downstream API
+     */
+    private RestTemplate getRestTemplate(String downstream) {
+        return switch (downstream) {
+            case COMPANY -> companyRestTemplate;
+            case USER -> userRestTemplate;
+            default -> throw new IllegalArgumentException("Unknown downstream API: " + downstream);
+        };
+    }
+
     /**
      * Create headers for API calls.
      *
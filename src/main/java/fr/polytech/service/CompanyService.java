@@ -1,13 +1,18 @@
 package fr.polytech.service;
 
+import fr.polytech.config.CacheConfig;
+import fr.polytech.config.DownstreamProperties;
 import fr.polytech.model.CompanyDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -18,8 +23,18 @@ public class CompanyService {
     @Autowired
     private ApiService apiService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DownstreamProperties downstreamProperties;
+
+    private final SingleFlight<UUID, CompanyDTO> companyLookups = new SingleFlight<>(ApiService::isNotFound);
+
     /**
      * Get company by id.
+     * Companies are kept in an in-process cache, shared by all the users, so that a cache hit makes no call to the company API.
+     * On a miss, concurrent lookups of the same company share a single call, unless it fails otherwise than with a 404: each caller then retries with its own token.
      *
      * @param id    Company id.
      * @param token Token of the user.
@@ -27,7 +42,44 @@ public class CompanyService {
      * @throws HttpClientErrorException If the company is not found.
      */
     public CompanyDTO getCompanyById(UUID id, String token) throws HttpClientErrorException {
-        String uri = System.getenv("COMPANY_API_URI") + "/" + id;
-        return apiService.makeApiCall(uri, HttpMethod.GET, CompanyDTO.class, token);
+        Cache companyCache = getCompanyCache();
+        CompanyDTO company = companyCache.get(id, CompanyDTO.class);
+        if (company != null) {
+            return company;
+        }
+
+        return companyLookups.execute(id, () -> {
+            String uri = downstreamProperties.getCompany().getUri() + "/" + id;
+            CompanyDTO fetched = apiService.makeApiCall(ApiService.COMPANY, uri, HttpMethod.GET, CompanyDTO.class, token);
+            companyCache.put(id, fetched);
+            return fetched;
+        });
+    }
+
+    /**
+     * Remove a company from the cache, the next lookup fetching it again from the company API.
+     *
+     * @param id Company id.
+     */
+    public void evictCompany(UUID id) {
+        logger.info("Evicting company with id {} from the cache", id);
+        getCompanyCache().evict(id);
+    }
+
+    /**
+     * Remove all the companies from the cache.
+     */
+    public void evictAllCompanies() {
+        logger.info("Evicting all the companies from the cache");
+        getCompanyCache().clear();
+    }
+
+    /**
+     * Get the cache of the companies.
+     *
+     * @return Cache of the companies, keyed by company id.
+     */
+    private Cache getCompanyCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.COMPANY_CACHE));
     }
 }
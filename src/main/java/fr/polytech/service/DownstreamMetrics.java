@@ -0,0 +1,92 @@
+package fr.polytech.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Timer of the downstream API calls, measured around the circuit breaker and the bulkhead so that rejected calls are
+ * counted too. Its percentiles and histogram are set by the management.metrics.distribution properties.
+ */
+@Component
+public class DownstreamMetrics {
+
+    /**
+     * Name of the timer.
+     */
+    public static final String METRIC_NAME = "downstream.requests";
+
+    /**
+     * Status of the calls rejected by the circuit breaker or the bulkhead, without reaching the API.
+     */
+    public static final String REJECTED = "REJECTED";
+
+    /**
+     * Status of the calls that got no response (connection refused, timeout).
+     */
+    public static final String IO_ERROR = "IO_ERROR";
+
+    /**
+     * Status of the calls cancelled by the caller before the API answered.
+     */
+    public static final String CANCELLED = "CANCELLED";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Start timing a call.
+     *
+     * @return Sample to stop when the call completes.
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Record a completed call.
+     *
+     * @param sample     Sample started with the call.
+     * @param downstream Name of the called API.
+     * @param method     HTTP method of the call.
+     * @param status     HTTP status code of the response, or one of REJECTED, IO_ERROR, CANCELLED.
+     */
+    public void stop(Timer.Sample sample, String downstream, HttpMethod method, String status) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Calls to the downstream APIs")
+                .tag("downstream", downstream)
+                .tag("method", method.name())
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Get the status tag of a failed call.
+     *
+     * @param error Failure of the call.
+     * @return HTTP status code of the error response, or REJECTED, IO_ERROR, UNKNOWN.
+     */
+    public static String status(Throwable error) {
+        if (error instanceof HttpStatusCodeException e) {
+            return String.valueOf(e.getStatusCode().value());
+        }
+        if (error instanceof WebClientResponseException e) {
+            return String.valueOf(e.getStatusCode().value());
+        }
+        if (error instanceof CallNotPermittedException || error instanceof BulkheadFullException) {
+            return REJECTED;
+        }
+        if (error instanceof ResourceAccessException || error instanceof WebClientRequestException) {
+            return IO_ERROR;
+        }
+        return "UNKNOWN";
+    }
+}
@@ -0,0 +1,162 @@
+package fr.polytech.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking variant of ApiService: no thread waits while a downstream API answers.
+ * The calls go through the same circuit breakers and bulkheads as the blocking ones, and fail with the same exceptions.
+ */
+@Service
+public class ReactiveApiService {
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveApiService.class);
+
+    @Autowired
+    @Qualifier("companyWebClient")
+    private WebClient companyWebClient;
+
+    @Autowired
+    @Qualifier("userWebClient")
+    private WebClient userWebClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private DownstreamMetrics downstreamMetrics;
+
+    /**
+     * Make an API call.
+     * Its duration is recorded by the downstream timer like the blocking calls, a call cancelled by its caller (on a
+     * timeout) being recorded with the CANCELLED status.
+     *
+     * @param downstream   Name of the called API (ApiService.COMPANY or ApiService.USER), selecting its HTTP client
+     * @param uri          URI of the API
+     * @param method       HTTP method
+     * @param responseType Class of the response
+     * @param token        String - Access token from the user who adds the review
+     * @param <T>          Type of the response
+     * @return Mono of the response, failing with an HttpClientErrorException if the API answered with a client error
+     * or another status than 200, and with an HttpServerErrorException if the API is unavailable, unreachable, rejects
+     * the call or answers an empty body
+     */
+    public <T> Mono<T> makeApiCall(String downstream, String uri, HttpMethod method, Class<T> responseType, String token) {
+        if (token == null || !token.startsWith("Bearer ")) {
+            return Mono.error(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+        }
+        return Mono.defer(() -> {
+                    logger.debug("Making API call to {}", uri);
+                    return getWebClient(downstream).method(method)
+                            .uri(uri)
+                            .headers(headers -> headers.setBearerAuth(token.replace("Bearer ", "")))
+                            .retrieve()
+                            .toEntity(responseType);
+                })
+                .onErrorMap(WebClientResponseException.class, e -> e.getStatusCode().is4xxClientError()
+                        ? new HttpClientErrorException(e.getStatusCode(), e.getStatusText())
+                        : new HttpServerErrorException(e.getStatusCode(), e.getStatusText()))
+                .flatMap(this::checkResponse)
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(downstream)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(downstream)))
+                .transformDeferred(call -> timed(call, downstream, method))
+                .map(ResponseEntity::getBody)
+                .onErrorMap(e -> e instanceof CallNotPermittedException || e instanceof BulkheadFullException, e -> {
+                    logger.warn("Call to {} API rejected: {}", downstream, e.getMessage());
+                    return new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+                })
+                .onErrorMap(WebClientRequestException.class, e -> {
+                    logger.warn("{} API unreachable: {}", downstream, e.getMessage());
+                    return new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+                });
+    }
+
+    /**
+     * Check a response of an API as the blocking client does: only a 200 with a body is a success.
+     * An empty body is a failure of the API, counted by its circuit breaker, and not a missing resource.
+     *
+     * @param response Response of the API
+     * @param <T>      Type of the response
+     * @return Mono of the response, failing with an HttpClientErrorException if its status is not 200, and with an
+     * HttpServerErrorException if its body is empty
+     */
+    private <T> Mono<ResponseEntity<T>> checkResponse(ResponseEntity<T> response) {
+        if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK)) {
+            return Mono.error(new HttpClientErrorException(response.getStatusCode()));
+        }
+        if (response.getBody() == null) {
+            return Mono.error(new HttpServerErrorException(HttpStatus.BAD_GATEWAY, "Empty response"));
+        }
+        return Mono.just(response);
+    }
+
+    /**
+     * Record the duration and the outcome of a call with the downstream timer, once per subscription.
+     *
+     * @param call       Call to time
+     * @param downstream Name of the called API
+     * @param method     HTTP method
+     * @param <T>        Type of the response
+     * @return Timed call
+     */
+    private <T> Mono<ResponseEntity<T>> timed(Mono<ResponseEntity<T>> call, String downstream, HttpMethod method) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = downstreamMetrics.start();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call
+                    .doOnSuccess(response -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            downstreamMetrics.stop(sample, downstream, method, String.valueOf(response.getStatusCode().value()));
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            downstreamMetrics.stop(sample, downstream, method, DownstreamMetrics.status(e));
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            downstreamMetrics.stop(sample, downstream, method, DownstreamMetrics.CANCELLED);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Get the HTTP client of a downstream API.
+     *
+     * @param downstream Name of the downstream API
+     * @return WebClient of the downstream API
+     */
+    private WebClient getWebClient(String downstream) {
+        return switch (downstream) {
+            case ApiService.COMPANY -> companyWebClient;
+            case ApiService.USER -> userWebClient;
+            default -> throw new IllegalArgumentException("Unknown downstream API: " + downstream);
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package fr.polytech.service;
+
+import fr.polytech.config.CacheConfig;
+import fr.polytech.config.DownstreamProperties;
+import fr.polytech.model.CompanyDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Non-blocking variant of CompanyService, sharing its cache.
+ */
+@Service
+public class ReactiveCompanyService {
+
+    @Autowired
+    private ReactiveApiService reactiveApiService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DownstreamProperties downstreamProperties;
+
+    private final SingleFlight<UUID, CompanyDTO> companyLookups = new SingleFlight<>(ApiService::isNotFound);
+
+    /**
+     * Get company by id.
+     * A cached company is returned without calling the company API, and concurrent lookups of the same company share a single call, unless it fails otherwise than with a 404: each caller then retries with its own token.
+     *
+     * @param id    Company id.
+     * @param token Token of the user.
+     * @return Mono of the company with the specified id, failing with an HttpClientErrorException if the company is not found.
+     */
+    public Mono<CompanyDTO> getCompanyById(UUID id, String token) {
+        return Mono.defer(() -> {
+            Cache companyCache = getCompanyCache();
+            CompanyDTO company = companyCache.get(id, CompanyDTO.class);
+            if (company != null) {
+                return Mono.just(company);
+            }
+
+            String uri = downstreamProperties.getCompany().getUri() + "/" + id;
+            return Mono.fromFuture(() -> companyLookups.executeAsync(id, () -> reactiveApiService
+                    .makeApiCall(ApiService.COMPANY, uri, HttpMethod.GET, CompanyDTO.class, token)
+                    .doOnNext(fetched -> companyCache.put(id, fetched))
+                    .toFuture()));
+        });
+    }
+
+    /**
+     * Get the cache of the companies.
+     *
+     * @return Cache of the companies, keyed by company id.
+     */
+    private Cache getCompanyCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.COMPANY_CACHE));
+    }
+}
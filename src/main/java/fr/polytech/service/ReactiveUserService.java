@@ -0,0 +1,81 @@
+package fr.polytech.service;
+
+import fr.polytech.config.CacheConfig;
+import fr.polytech.config.DownstreamProperties;
+import fr.polytech.model.user.RecruiterDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Non-blocking variant of UserService, sharing its cache, cached misses included.
+ */
+@Service
+public class ReactiveUserService {
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    @Autowired
+    private ReactiveApiService reactiveApiService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DownstreamProperties downstreamProperties;
+
+    private final SingleFlight<UUID, RecruiterDTO> recruiterLookups = new SingleFlight<>(ApiService::isNotFound);
+
+    /**
+     * Get recruiter by id.
+     * A cached recruiter, or a cached miss, is answered without calling the user API, and concurrent lookups of the
+     * same recruiter share a single call, unless it fails otherwise than with a 404: each caller then retries with its own token.
+     *
+     * @param id    Recruiter id.
+     * @param token Token of the user.
+     * @return Mono of the recruiter with the specified id, failing with an HttpClientErrorException if the recruiter is not found.
+     */
+    public Mono<RecruiterDTO> getRecruiterById(UUID id, String token) {
+        return Mono.defer(() -> {
+            Cache recruiterCache = getRecruiterCache();
+            Cache.ValueWrapper cached = recruiterCache.get(id);
+            if (cached != null) {
+                if (cached.get() == null) {
+                    return Mono.error(new HttpClientErrorException(HttpStatus.NOT_FOUND, "Recruiter not found"));
+                }
+                return Mono.just((RecruiterDTO) cached.get());
+            }
+
+            String uri = downstreamProperties.getUser().getUri() + "/" + id;
+            return Mono.fromFuture(() -> recruiterLookups.executeAsync(id, () -> reactiveApiService
+                    .makeApiCall(ApiService.USER, uri, HttpMethod.GET, RecruiterDTO.class, token)
+                    .doOnNext(recruiter -> recruiterCache.put(id, recruiter))
+                    .doOnError(HttpClientErrorException.class, e -> {
+                        if (e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                            logger.debug("Recruiter with id {} not found, caching the miss", id);
+                            recruiterCache.put(id, null);
+                        }
+                    })
+                    .toFuture()));
+        });
+    }
+
+    /**
+     * Get the cache of the recruiters.
+     *
+     * @return Cache of the recruiters, keyed by recruiter id.
+     */
+    private Cache getRecruiterCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.RECRUITER_CACHE));
+    }
+}
@@ -0,0 +1,81 @@
+package fr.polytech.service;
+
+import fr.polytech.model.Reference;
+import fr.polytech.model.ReferenceVersion;
+import fr.polytech.model.ReferenceView;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Strong entity tags of the references, computed from their versions only.
+ */
+public final class ReferenceEtag {
+
+    private ReferenceEtag() {
+    }
+
+    /**
+     * Get the entity tag of a reference at a version.
+     *
+     * @param version Version of the reference.
+     * @return Quoted entity tag.
+     */
+    public static String ofVersion(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Get the entity tag of a reference.
+     *
+     * @param reference Reference.
+     * @return Quoted entity tag.
+     */
+    public static String of(Reference reference) {
+        return ofVersion(reference.getVersion());
+    }
+
+    /**
+     * Check whether an If-None-Match header holds an entity tag, with the weak comparison of RFC 9110.
+     *
+     * @param ifNoneMatch Value of the If-None-Match header: "*" or a comma separated list of entity tags.
+     * @param etag        Quoted entity tag.
+     * @return true if the header matches the entity tag.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the entity tag of a list of references, from their ids and versions, whatever their order.
+     *
+     * @param versions Ids and versions of the references.
+     * @return Quoted entity tag.
+     */
+    public static String ofVersions(List<ReferenceVersion> versions) {
+        StringBuilder content = new StringBuilder(versions.size() * 40);
+        versions.stream()
+                .sorted(Comparator.comparing(ReferenceVersion::id))
+                .forEach(version -> content.append(version.id()).append(':').append(version.version()).append(';'));
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Get the entity tag of a list of references.
+     *
+     * @param views References.
+     * @return Quoted entity tag.
+     */
+    public static String ofViews(List<ReferenceView> views) {
+        return ofVersions(views.stream().map(view -> new ReferenceVersion(view.id(), view.version())).toList());
+    }
+}
@@ -1,21 +1,58 @@
 package fr.polytech.service;
 
+import fr.polytech.config.DownstreamProperties;
 import fr.polytech.model.CompanyDTO;
 import fr.polytech.model.DetailedReferenceDTO;
 import fr.polytech.model.Reference;
 import fr.polytech.model.ReferenceDTO;
+import fr.polytech.model.ReferencePage;
+import fr.polytech.model.ReferenceView;
 import fr.polytech.model.user.RecruiterDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import fr.polytech.repository.ReferenceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.ws.rs.NotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
-
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReferenceService {
@@ -34,14 +71,94 @@ public class ReferenceService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ReactiveCompanyService reactiveCompanyService;
+
+    @Autowired
+    private ReactiveUserService reactiveUserService;
+
+    @Autowired
+    private TaskExecutor downstreamExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DownstreamProperties downstreamProperties;
+
+    @Value("${reference.detailed.batch.max-size:100}")
+    private int batchMaxSize;
+
+    @Value("${reference.bulk.max-size:500}")
+    private int bulkMaxSize;
+
+    @Value("${reference.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${reference.page.max-size:500}")
+    private int maxPageSize;
+
     /**
-     * Get all references.
+     * Get a page of references, ordered by id.
+     * Pages are fetched by seeking after the id of the last reference of the previous page, not by offset.
      *
-     * @return List of all references.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param size   Number of references of the page, or null for the default size.
+     * @return Page of references, with the cursor of the next page if there is one.
+     * @throws HttpClientErrorException If the cursor or the size is not valid.
      */
-    public List<Reference> getAllReferences() {
-        logger.info("Getting all references");
-        return referenceRepository.findAll();
+    @Transactional(readOnly = true)
+    public ReferencePage getReferencePage(String cursor, Integer size) throws HttpClientErrorException {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + maxPageSize);
+        }
+        logger.debug("Getting a page of {} references", pageSize);
+
+        // One more reference is fetched to know whether there is a next page
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        List<ReferenceView> references = cursor == null
+                ? referenceRepository.findFirstPage(pageable)
+                : referenceRepository.findPageAfter(decodeCursor(cursor), pageable);
+
+        if (references.size() <= pageSize) {
+            return new ReferencePage(references, null);
+        }
+        List<ReferenceView> page = references.subList(0, pageSize);
+        return new ReferencePage(new ArrayList<>(page), encodeCursor(page.get(pageSize - 1).id()));
+    }
+
+    /**
+     * Export all the references as newline-delimited JSON.
+     * Rows are read from a database cursor and written one by one, each entity being detached once written,
+     * so that the memory used does not depend on the number of references.
+     *
+     * @param outputStream Stream to write the references to. It is flushed but not closed.
+     * @throws IOException If the references cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public void exportReferences(OutputStream outputStream) throws IOException {
+        logger.info("Exporting all references");
+        ObjectWriter writer = objectMapper.writerFor(Reference.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+
+        try (Stream<Reference> references = referenceRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Reference> iterator = references.iterator();
+            while (iterator.hasNext()) {
+                Reference reference = iterator.next();
+                writer.writeValue(generator, reference);
+                generator.writeRaw('\n');
+                entityManager.detach(reference);
+                count++;
+            }
+        }
+        logger.info("Exported {} references", count);
     }
 
     /**
@@ -51,9 +168,10 @@ public class ReferenceService {
      * @return Reference with the specified id.
      * @throws HttpClientErrorException If the reference is not found.
      */
+    @Transactional(readOnly = true)
     public Reference getReferenceById(UUID id) throws HttpClientErrorException {
         Reference reference = referenceRepository.findById(id).orElse(null);
-        logger.info("Getting reference with id " + id);
+        logger.debug("Getting reference with id {}", id);
 
         if (reference == null) {
             logger.error("Error while getting a reference: reference not found");
@@ -61,10 +179,35 @@ public class ReferenceService {
             throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Reference not found");
         }
 
-        logger.debug("Returning reference with id " + id);
+        logger.debug("Returning reference with id {}", id);
         return reference;
     }
 
+    /**
+     * Get the entity tag of a reference, from its version only.
+     *
+     * @param id Reference id.
+     * @return Entity tag of the reference.
+     * @throws HttpClientErrorException If the reference is not found.
+     */
+    @Transactional(readOnly = true)
+    public String getReferenceEtag(UUID id) throws HttpClientErrorException {
+        Long version = referenceRepository.findVersionById(id).orElseThrow(
+                () -> new HttpClientErrorException(HttpStatus.NOT_FOUND, "Reference not found"));
+        return ReferenceEtag.ofVersion(version);
+    }
+
+    /**
+     * Get the entity tag of the references sent by a user, from their ids and versions only.
+     *
+     * @param id User id (contact id).
+     * @return Entity tag of the references.
+     */
+    @Transactional(readOnly = true)
+    public String getReferencesEtagByUserId(UUID id) {
+        return ReferenceEtag.ofVersions(referenceRepository.findVersionsByContactId(id));
+    }
+
     /**
      * Create a reference.
      *
@@ -86,52 +229,196 @@ public class ReferenceService {
         return referenceRepository.save(referenceReturn);
     }
 
+    /**
+     * Create references in a single transaction.
+     * All the references are validated before any is inserted. Their ids are generated by the application when they are
+     * persisted, so the inserts are only sent on flush, grouped in JDBC batches.
+     *
+     * @param references References to create.
+     * @return Created references.
+     * @throws HttpClientErrorException If there are too many references, or one of them is missing attributes.
+     */
+    @Transactional
+    public List<Reference> createReferences(List<ReferenceDTO> references) throws HttpClientErrorException {
+        logger.info("Starting the creation of {} references", references.size());
+
+        if (references.size() > bulkMaxSize) {
+            logger.error("Error while creating references: too many references");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Too many references, maximum is " + bulkMaxSize);
+        }
+        references.forEach(this::checkAttributes);
+
+        List<Reference> referencesToSave = new ArrayList<>(references.size());
+        for (ReferenceDTO reference : references) {
+            Reference referenceToSave = new Reference();
+            referenceToSave.setContact(reference.getContact());
+            referenceToSave.setCompanyId(reference.getCompanyId());
+            referenceToSave.setContactId(reference.getContactId());
+            referenceToSave.setContactJobTitle(reference.getContactJobTitle());
+            referencesToSave.add(referenceToSave);
+        }
+
+        // Save the references in the database and return them
+        return referenceRepository.saveAll(referencesToSave);
+    }
+
     /**
      * Update a reference.
+     * If the reference holds a version, it must be the stored one. The stored reference is read from the database,
+     * not from the second-level cache, so an update made through another instance is not mistaken for a conflict.
      *
      * @param reference Reference to update.
      * @return Updated reference.
      * @throws NotFoundException If the reference is not found.
+     * @throws HttpClientErrorException If the reference was modified since the given version.
      */
+    @Transactional
     public Reference updateReference(ReferenceDTO reference) throws HttpClientErrorException {
         logger.info("Starting the update of a reference");
 
         checkAttributes(reference);
 
-        Reference storedReference = referenceRepository.findById(reference.getId()).orElse(null);
+        Reference storedReference = referenceRepository.findStoredById(reference.getId()).orElse(null);
 
         if (storedReference == null) {
             logger.error("Error while updating a reference: reference not found");
             // If the reference is not found, throw an exception
             throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Reference not found");
         }
+        if (reference.getVersion() != null && !reference.getVersion().equals(storedReference.getVersion())) {
+            logger.error("Error while updating a reference: reference was modified");
+            throw new HttpClientErrorException(HttpStatus.CONFLICT, "Reference was modified");
+        }
 
         storedReference.setContact(reference.getContact());
         storedReference.setCompanyId(reference.getCompanyId());
         storedReference.setContactId(reference.getContactId());
         storedReference.setContactJobTitle(reference.getContactJobTitle());
 
-        // Save the reference in the database and return it
-        return referenceRepository.save(storedReference);
+        // Save the reference in the database and return it, a concurrent update being detected on flush
+        try {
+            return referenceRepository.saveAndFlush(storedReference);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.error("Error while updating a reference: reference was modified");
+            throw new HttpClientErrorException(HttpStatus.CONFLICT, "Reference was modified");
+        }
+    }
+
+    /**
+     * Partially update a reference, only the attributes set in the changes being changed.
+     * The update goes through the entity, conditioned on the version of the changes being the stored one, so that only
+     * this reference is updated in the second-level cache.
+     *
+     * @param id      Reference id.
+     * @param changes Attributes to update, with the version of the reference they were made on.
+     * @return New version of the reference.
+     * @throws HttpClientErrorException If the version or all the attributes are missing, if the reference is not found,
+     *                                  or if it was modified since the given version.
+     */
+    @Transactional
+    public long patchReference(UUID id, ReferenceDTO changes) throws HttpClientErrorException {
+        logger.info("Starting the partial update of a reference");
+
+        if (changes.getVersion() == null) {
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing version");
+        }
+        if (changes.getContact() == null && changes.getCompanyId() == null && changes.getContactId() == null && changes.getContactJobTitle() == null) {
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Missing attributes");
+        }
+
+        Reference storedReference = referenceRepository.findStoredById(id).orElse(null);
+        if (storedReference == null) {
+            logger.error("Error while updating a reference: reference not found");
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Reference not found");
+        }
+        if (!changes.getVersion().equals(storedReference.getVersion())) {
+            logger.error("Error while updating a reference: reference was modified");
+            throw new HttpClientErrorException(HttpStatus.CONFLICT, "Reference was modified");
+        }
+
+        if (changes.getContact() != null) {
+            storedReference.setContact(changes.getContact());
+        }
+        if (changes.getCompanyId() != null) {
+            storedReference.setCompanyId(changes.getCompanyId());
+        }
+        if (changes.getContactId() != null) {
+            storedReference.setContactId(changes.getContactId());
+        }
+        if (changes.getContactJobTitle() != null) {
+            storedReference.setContactJobTitle(changes.getContactJobTitle());
+        }
+
+        // A concurrent update is detected on flush
+        try {
+            return referenceRepository.saveAndFlush(storedReference).getVersion();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.error("Error while updating a reference: reference was modified");
+            throw new HttpClientErrorException(HttpStatus.CONFLICT, "Reference was modified");
+        }
     }
 
     /**
      * Delete a reference.
+     * The deletion goes through the entity, so that only this reference is evicted from the second-level cache.
      *
      * @param id Reference id.
      * @throws NotFoundException If the reference is not found.
+     * @throws HttpClientErrorException If the reference was modified while being deleted.
      */
+    @Transactional
     public void deleteReference(UUID id) throws HttpClientErrorException {
         logger.info("Starting the deletion of a reference");
-        Reference reference = referenceRepository.findById(id).orElse(null);
 
-        if (reference == null) {
+        Reference storedReference = referenceRepository.findStoredById(id).orElse(null);
+        if (storedReference == null) {
             logger.error("Error while deleting a reference: reference not found");
             // If the reference is not found, throw an exception
             throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Reference not found");
         }
 
-        referenceRepository.delete(reference);
+        try {
+            referenceRepository.delete(storedReference);
+            referenceRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.error("Error while deleting a reference: reference was modified");
+            throw new HttpClientErrorException(HttpStatus.CONFLICT, "Reference was modified");
+        }
+    }
+
+    /**
+     * Delete references by ids, with a single statement.
+     * The statement clears the whole region of the references from the second-level cache: it is meant for cleanups.
+     *
+     * @param ids Reference ids.
+     * @return Number of deleted references, unknown ids being ignored.
+     * @throws HttpClientErrorException If there are too many ids.
+     */
+    @Transactional
+    public int deleteReferences(List<UUID> ids) throws HttpClientErrorException {
+        logger.info("Starting the deletion of {} references", ids.size());
+
+        if (ids.size() > bulkMaxSize) {
+            logger.error("Error while deleting references: too many ids");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Too many ids, maximum is " + bulkMaxSize);
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return referenceRepository.deleteReferencesByIds(ids);
+    }
+
+    /**
+     * Delete all the references sent by a user, with a single statement.
+     * The statement clears the whole region of the references from the second-level cache: it is meant for cleanups.
+     *
+     * @param id User id (contact id).
+     * @return Number of deleted references.
+     */
+    @Transactional
+    public int deleteReferencesByUserId(UUID id) {
+        logger.info("Starting the deletion of the references with contact id {}", id);
+        return referenceRepository.deleteReferencesByContactId(id);
     }
 
     /**
@@ -140,11 +427,44 @@ public class ReferenceService {
      * @param id User id (contact id).
      * @return List of references sent by the user.
      */
-    public List<Reference> getReferenceByUserId(UUID id) {
-        logger.info("Getting reference with contact id " + id);
+    @Transactional(readOnly = true)
+    public List<ReferenceView> getReferenceByUserId(UUID id) {
+        logger.debug("Getting references with contact id {}", id);
         return referenceRepository.findByContactId(id);
     }
 
+    /**
+     * Encode the id of the last reference of a page into an opaque cursor.
+     *
+     * @param id Reference id.
+     * @return Cursor of the next page.
+     */
+    private String encodeCursor(UUID id) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decode a cursor into the id of the last reference of the previous page.
+     *
+     * @param cursor Cursor of the page.
+     * @return Reference id.
+     * @throws HttpClientErrorException If the cursor is not valid.
+     */
+    private UUID decodeCursor(String cursor) throws HttpClientErrorException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+            if (buffer.remaining() != 16) {
+                throw new IllegalArgumentException("Cursor must hold 16 bytes");
+            }
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (IllegalArgumentException e) {
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
     /**
      * Check if the reference has all the required attributes.
      *
@@ -158,34 +478,231 @@ public class ReferenceService {
     }
 
     /**
-     * Get a detailed reference by id.
-     * @param id Reference id.
+     * Get a detailed reference by id without blocking on the downstream APIs.
+     * The calling thread is released once the reference is loaded: both lookups are composed asynchronously and no
+     * thread waits for their answers. A section whose API is unavailable is left empty and listed as missing.
+     *
+     * @param id    Reference id.
      * @param token Token of the user.
-     * @return Detailed reference with the specified id.
+     * @return Future of the detailed reference, failing with an HttpClientErrorException if the reference, its company
+     * or its contact is not found.
      */
-    public DetailedReferenceDTO getDetailedReferenceById(UUID id, String token) {
-        Reference referenceById = getReferenceById(id);
+    public CompletableFuture<DetailedReferenceDTO> getDetailedReferenceByIdAsync(UUID id, String token) {
+        return getDetailedReferenceByIdAsync(id, token, ServerTiming.DISABLED);
+    }
 
-        if (referenceById == null) {
-            logger.error("Error while getting a reference: reference not found");
-            // If the reference is not found, throw an exception
-            throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Reference not found");
+    /**
+     * Get a detailed reference by id without blocking on the downstream APIs, timing its phases.
+     * The database phase is the loading of the reference, the company and user phases last until their section is
+     * filled or given up.
+     *
+     * @param id     Reference id.
+     * @param token  Token of the user.
+     * @param timing Timing of the request, ServerTiming.DISABLED when the phases are not reported.
+     * @return Future of the detailed reference, failing with an HttpClientErrorException if the reference, its company
+     * or its contact is not found.
+     */
+    public CompletableFuture<DetailedReferenceDTO> getDetailedReferenceByIdAsync(UUID id, String token, ServerTiming timing) {
+        Reference referenceById;
+        long databaseStart = timing.now();
+        try {
+            referenceById = getReferenceById(id);
+        } catch (HttpClientErrorException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            timing.record(ServerTiming.DATABASE, databaseStart);
         }
 
-        DetailedReferenceDTO detailedReferenceDTO = new DetailedReferenceDTO();
+        Mono<Optional<CompanyDTO>> company = timing.time(ApiService.COMPANY, optionalSection(
+                reactiveCompanyService.getCompanyById(referenceById.getCompanyId(), token),
+                downstreamProperties.getCompany().getTimeout(), DetailedReferenceDTO.COMPANY_SECTION));
+        Mono<Optional<RecruiterDTO>> contact = timing.time(ApiService.USER, optionalSection(
+                reactiveUserService.getRecruiterById(referenceById.getContactId(), token),
+                downstreamProperties.getUser().getTimeout(), DetailedReferenceDTO.CONTACT_SECTION));
+
+        return Mono.zip(company, contact)
+                .map(sections -> {
+                    DetailedReferenceDTO detailedReferenceDTO = toDetailedReference(referenceById);
+                    sections.getT1().ifPresentOrElse(detailedReferenceDTO::setCompany,
+                            () -> detailedReferenceDTO.getMissing().add(DetailedReferenceDTO.COMPANY_SECTION));
+                    sections.getT2().ifPresentOrElse(detailedReferenceDTO::setContact,
+                            () -> detailedReferenceDTO.getMissing().add(DetailedReferenceDTO.CONTACT_SECTION));
+                    return detailedReferenceDTO;
+                })
+                .toFuture();
+    }
+
+    /**
+     * Get detailed references by ids.
+     * The references are loaded with a single query, and each distinct company and recruiter is fetched only once,
+     * all the downstream calls running concurrently.
+     *
+     * @param ids   Reference ids.
+     * @param token Token of the user.
+     * @return Detailed references found, in the order of the requested ids. Unknown ids are skipped.
+     * @throws HttpClientErrorException If too many ids are requested.
+     */
+    public List<DetailedReferenceDTO> getDetailedReferencesByIds(List<UUID> ids, String token) throws HttpClientErrorException {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > batchMaxSize) {
+            logger.error("Error while getting detailed references: too many ids");
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Too many ids, maximum is " + batchMaxSize);
+        }
 
-        detailedReferenceDTO.setId(referenceById.getId());
-        detailedReferenceDTO.setContactJobTitle(referenceById.getContactJobTitle());
-        detailedReferenceDTO.setContactName(referenceById.getContact());
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        Map<UUID, Reference> references = referenceRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(Reference::getId, Function.identity()));
+        logger.debug("Getting {} detailed references", references.size());
+
+        Map<UUID, CompletableFuture<CompanyDTO>> companyFutures = new HashMap<>();
+        Map<UUID, CompletableFuture<RecruiterDTO>> recruiterFutures = new HashMap<>();
+        for (Reference reference : references.values()) {
+            if (reference.getCompanyId() != null) {
+                companyFutures.computeIfAbsent(reference.getCompanyId(), companyId -> supplyWithTimeout(
+                        () -> companyService.getCompanyById(companyId, token), downstreamProperties.getCompany().getTimeout()));
+            }
+            if (reference.getContactId() != null) {
+                recruiterFutures.computeIfAbsent(reference.getContactId(), contactId -> supplyWithTimeout(
+                        () -> userService.getRecruiterById(contactId, token), downstreamProperties.getUser().getTimeout()));
+            }
+        }
 
-        CompanyDTO companyDTO = companyService.getCompanyById(referenceById.getCompanyId(), token);
+        List<DetailedReferenceDTO> detailedReferences = new ArrayList<>(references.size());
+        for (UUID id : distinctIds) {
+            Reference reference = references.get(id);
+            if (reference == null) {
+                continue;
+            }
+            DetailedReferenceDTO detailedReferenceDTO = toDetailedReference(reference);
+            detailedReferenceDTO.setCompany(awaitOrNull(companyFutures.get(reference.getCompanyId()),
+                    detailedReferenceDTO, DetailedReferenceDTO.COMPANY_SECTION));
+            detailedReferenceDTO.setContact(awaitOrNull(recruiterFutures.get(reference.getContactId()),
+                    detailedReferenceDTO, DetailedReferenceDTO.CONTACT_SECTION));
+            detailedReferences.add(detailedReferenceDTO);
+        }
+        return detailedReferences;
+    }
 
-        detailedReferenceDTO.setCompany(companyDTO);
+    /**
+     * Build a detailed reference holding the attributes of the reference itself.
+     *
+     * @param reference Reference to copy.
+     * @return Detailed reference without company nor contact.
+     */
+    private DetailedReferenceDTO toDetailedReference(Reference reference) {
+        DetailedReferenceDTO detailedReferenceDTO = new DetailedReferenceDTO();
+        detailedReferenceDTO.setId(reference.getId());
+        detailedReferenceDTO.setContactJobTitle(reference.getContactJobTitle());
+        detailedReferenceDTO.setContactName(reference.getContact());
+        return detailedReferenceDTO;
+    }
 
-        RecruiterDTO recruiterDTO = userService.getRecruiterById(referenceById.getContactId(), token);
+    /**
+     * Run a downstream call on the downstream executor, failing it if it takes longer than the given timeout.
+     *
+     * @param supplier Downstream call.
+     * @param timeout  Maximum duration of the call.
+     * @param <T>      Type of the result.
+     * @return Future completed with the result of the call.
+     */
+    private <T> CompletableFuture<T> supplyWithTimeout(Supplier<T> supplier, Duration timeout) {
+        return CompletableFuture.supplyAsync(supplier, downstreamExecutor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
 
-        detailedReferenceDTO.setContact(recruiterDTO);
+    /**
+     * Wait for a downstream call and rethrow its failure as it would have been thrown by a direct call.
+     *
+     * @param future Future of the downstream call.
+     * @param <T>    Type of the result.
+     * @return Result of the call.
+     * @throws HttpClientErrorException If the downstream API answered with an error.
+     * @throws HttpServerErrorException If the downstream API did not answer in time.
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for a downstream API");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                logger.error("Error while getting a detailed reference: downstream API timed out");
+                throw new HttpServerErrorException(HttpStatus.GATEWAY_TIMEOUT, "Downstream API timed out");
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR, cause.getMessage());
+        }
+    }
 
-        return detailedReferenceDTO;
+    /**
+     * Bound a non-blocking downstream lookup, an unavailable or late API resulting in an empty section.
+     *
+     * @param lookup  Downstream lookup.
+     * @param timeout Maximum duration of the lookup.
+     * @param section Name of the section filled by the lookup.
+     * @param <T>     Type of the result.
+     * @return Mono of the result, empty if the downstream API was unavailable, failing if it answered with a client error.
+     */
+    private <T> Mono<Optional<T>> optionalSection(Mono<T> lookup, Duration timeout, String section) {
+        return lookup.timeout(timeout)
+                .map(Optional::of)
+                .onErrorResume(e -> e instanceof TimeoutException || e instanceof HttpServerErrorException, e -> {
+                    logger.warn("Downstream API of the {} section unavailable: {}", section, e.getMessage());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    /**
+     * Wait for the downstream call filling a section of a detailed reference.
+     * If the downstream API is unavailable, the section is left empty and listed as missing.
+     *
+     * @param future            Future of the downstream call.
+     * @param detailedReference Detailed reference being built.
+     * @param section           Name of the section filled by the call.
+     * @param <T>               Type of the result.
+     * @return Result of the call, or null if the downstream API was unavailable.
+     * @throws HttpClientErrorException If the downstream API answered with an error.
+     */
+    private <T> T awaitSection(CompletableFuture<T> future, DetailedReferenceDTO detailedReference, String section) {
+        try {
+            return await(future);
+        } catch (HttpServerErrorException e) {
+            logger.warn("Downstream API of the {} section unavailable: {}", section, e.getStatusCode());
+            detailedReference.getMissing().add(section);
+            return null;
+        }
+    }
+
+    /**
+     * Wait for a downstream call of a batch, a missing or unavailable resource only leaving its section empty and
+     * listed as missing.
+     *
+     * @param future            Future of the downstream call, may be null if there was nothing to fetch.
+     * @param detailedReference Detailed reference being built.
+     * @param section           Name of the section filled by the call.
+     * @param <T>               Type of the result.
+     * @return Result of the call, or null if the resource could not be fetched.
+     * @throws HttpClientErrorException If the downstream API rejected the call for another reason than a missing resource.
+     */
+    private <T> T awaitOrNull(CompletableFuture<T> future, DetailedReferenceDTO detailedReference, String section) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return awaitSection(future, detailedReference, section);
+        } catch (HttpClientErrorException e) {
+            if (!e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                throw e;
+            }
+            logger.warn("Downstream resource not found while getting detailed references");
+            detailedReference.getMissing().add(section);
+            return null;
+        }
     }
 }
@@ -0,0 +1,118 @@
+package fr.polytech.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Durations of the phases of a request, reported in its Server-Timing response header.
+ * The DISABLED instance records nothing, so that the phases can be timed unconditionally at no cost.
+ */
+public class ServerTiming {
+
+    /**
+     * Name of the response header.
+     */
+    public static final String HEADER = "Server-Timing";
+
+    /**
+     * Instance used when the header is not sent: it records nothing.
+     */
+    public static final ServerTiming DISABLED = new ServerTiming(false);
+
+    /**
+     * Phase of the database queries.
+     */
+    public static final String DATABASE = "db";
+
+    /**
+     * Whole request, up to the building of the response.
+     */
+    public static final String TOTAL = "total";
+
+    private final boolean enabled;
+
+    private final long start = System.nanoTime();
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Start timing a request.
+     */
+    public ServerTiming() {
+        this(true);
+    }
+
+    private ServerTiming(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check whether the phases are recorded.
+     *
+     * @return true unless this is the DISABLED instance.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the current time, to pass to record once the phase ends.
+     *
+     * @return Current time in nanoseconds, 0 when disabled.
+     */
+    public long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record a phase that started at a time.
+     *
+     * @param phase      Name of the phase.
+     * @param startNanos Start of the phase, as returned by now.
+     */
+    public void record(String phase, long startNanos) {
+        if (enabled) {
+            long duration = System.nanoTime() - startNanos;
+            synchronized (phases) {
+                phases.put(phase, duration);
+            }
+        }
+    }
+
+    /**
+     * Time a phase running asynchronously, from the subscription to the completion, error or cancellation of a Mono.
+     *
+     * @param phase Name of the phase.
+     * @param mono  Mono running the phase.
+     * @param <T>   Type of the result.
+     * @return Mono recording the phase, or the given one when disabled.
+     */
+    public <T> Mono<T> time(String phase, Mono<T> mono) {
+        if (!enabled) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return mono.doOnTerminate(() -> record(phase, startNanos))
+                    .doOnCancel(() -> record(phase, startNanos));
+        });
+    }
+
+    /**
+     * Record the total duration of the request and build the header value, e.g. "db;dur=1.2, company;dur=40.3, total;dur=42.0".
+     *
+     * @return Value of the Server-Timing header.
+     */
+    public String toHeaderValue() {
+        record(TOTAL, start);
+        synchronized (phases) {
+            return phases.entrySet().stream()
+                    .map(phase -> String.format(Locale.ROOT, "%s;dur=%.1f", phase.getKey(), phase.getValue() / 1_000_000.0))
+                    .collect(Collectors.joining(", "));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package fr.polytech.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent lookups of the same key: the first caller runs the lookup, and the callers arriving
+ * while it is in flight wait for its result instead of running their own.
+ * Only the failures accepted by the shared failure predicate are passed on to the waiting callers: on any other
+ * failure, which may depend on the caller that ran the lookup (its credentials), each waiting caller runs its own lookup.
+ * Nothing is kept once the lookup is over, so it works alongside any cache.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Predicate<Throwable> sharedFailure;
+
+    /**
+     * Coalesce the lookups, their failures being passed on to every waiting caller.
+     */
+    public SingleFlight() {
+        this(failure -> true);
+    }
+
+    /**
+     * Coalesce the lookups, only the failures accepted by a predicate being passed on to the waiting callers.
+     *
+     * @param sharedFailure Tells whether a failure of the lookup holds for every caller.
+     */
+    public SingleFlight(Predicate<Throwable> sharedFailure) {
+        this.sharedFailure = sharedFailure;
+    }
+
+    /**
+     * Get the value of a key, joining the lookup of that key already in flight if there is one.
+     *
+     * @param key    Key to look up.
+     * @param lookup Lookup of the value, run in the calling thread if no other lookup of the key is in flight, or if
+     *               the one in flight failed with a failure that is not shared.
+     * @return Value of the key.
+     * @throws RuntimeException The failure of the lookup, or the shared failure of the lookup waited for.
+     */
+    public V execute(K key, Supplier<V> lookup) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                Throwable failure = e.getCause() != null ? e.getCause() : e;
+                if (!sharedFailure.test(failure)) {
+                    return lookup.get();
+                }
+                if (failure instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (failure instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            V value = lookup.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Get the value of a key without blocking, joining the lookup of that key already in flight if there is one.
+     *
+     * @param key    Key to look up.
+     * @param lookup Asynchronous lookup of the value, started if no other lookup of the key is in flight, or if the
+     *               one in flight failed with a failure that is not shared.
+     * @return Future of the value, cancelling it does not cancel the lookup shared with the other callers.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> lookup) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.<CompletableFuture<V>>handle((value, failure) -> {
+                if (failure == null) {
+                    return CompletableFuture.completedFuture(value);
+                }
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                return sharedFailure.test(cause) ? CompletableFuture.failedFuture(cause) : lookup.get();
+            }).thenCompose(Function.identity());
+        }
+
+        try {
+            lookup.get().whenComplete((value, failure) -> {
+                inFlight.remove(key, flight);
+                if (failure != null) {
+                    flight.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    /**
+     * Get the number of lookups in flight.
+     *
+     * @return Number of keys being looked up.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -1,13 +1,19 @@
 package fr.polytech.service;
 
+import fr.polytech.config.CacheConfig;
+import fr.polytech.config.DownstreamProperties;
 import fr.polytech.model.user.RecruiterDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -18,8 +24,19 @@ public class UserService {
     @Autowired
     private ApiService apiService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DownstreamProperties downstreamProperties;
+
+    private final SingleFlight<UUID, RecruiterDTO> recruiterLookups = new SingleFlight<>(ApiService::isNotFound);
+
     /**
      * Get recruiter by id.
+     * Recruiters are kept in an in-process cache. A recruiter not found by the user API is cached as a null value
+     * for a shorter time, so that repeated lookups of a deleted user do not reach the user API.
+     * On a miss, concurrent lookups of the same recruiter share a single call, unless it fails otherwise than with a 404: each caller then retries with its own token.
      *
      * @param id    Recruiter id.
      * @param token Token of the user.
@@ -27,8 +44,55 @@ public class UserService {
      * @throws HttpClientErrorException If the recruiter is not found.
      */
     public RecruiterDTO getRecruiterById(UUID id, String token) throws HttpClientErrorException {
-        String uri = System.getenv("USER_API_URI") + "/" + id;
-        return apiService.makeApiCall(uri, HttpMethod.GET, RecruiterDTO.class, token);
+        Cache recruiterCache = getRecruiterCache();
+        Cache.ValueWrapper cached = recruiterCache.get(id);
+        if (cached != null) {
+            if (cached.get() == null) {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Recruiter not found");
+            }
+            return (RecruiterDTO) cached.get();
+        }
+
+        return recruiterLookups.execute(id, () -> {
+            String uri = downstreamProperties.getUser().getUri() + "/" + id;
+            try {
+                RecruiterDTO recruiter = apiService.makeApiCall(ApiService.USER, uri, HttpMethod.GET, RecruiterDTO.class, token);
+                recruiterCache.put(id, recruiter);
+                return recruiter;
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                    logger.debug("Recruiter with id {} not found, caching the miss", id);
+                    recruiterCache.put(id, null);
+                }
+                throw e;
+            }
+        });
     }
 
+    /**
+     * Remove a recruiter, or a cached miss, from the cache.
+     *
+     * @param id Recruiter id.
+     */
+    public void evictRecruiter(UUID id) {
+        logger.info("Evicting recruiter with id {} from the cache", id);
+        getRecruiterCache().evict(id);
+    }
+
+    /**
+     * Remove all the recruiters from the cache.
+     */
+    public void evictAllRecruiters() {
+        logger.info("Evicting all the recruiters from the cache");
+        getRecruiterCache().clear();
+    }
+
+    /**
+     * Get the cache of the recruiters.
+     *
+     * @return Cache of the recruiters, keyed by recruiter id.
+     */
+    private Cache getRecruiterCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.RECRUITER_CACHE));
+    }
 }
@@ -0,0 +1,10 @@
+-- Table previously created by Hibernate: existing databases are baselined at this version
+CREATE TABLE IF NOT EXISTS reference
+(
+    id                UUID NOT NULL,
+    contact           VARCHAR(255),
+    company_id        UUID,
+    contact_id        UUID,
+    contact_job_title VARCHAR(255),
+    CONSTRAINT reference_pkey PRIMARY KEY (id)
+);
@@ -0,0 +1,3 @@
+-- References are looked up by contact (GET /api/v1/reference/user/{id}) and grouped by company
+CREATE INDEX IF NOT EXISTS idx_reference_contact_id ON reference (contact_id);
+CREATE INDEX IF NOT EXISTS idx_reference_company_id ON reference (company_id);
@@ -0,0 +1,2 @@
+-- Optimistic locking version of the references, incremented on every update
+ALTER TABLE reference ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
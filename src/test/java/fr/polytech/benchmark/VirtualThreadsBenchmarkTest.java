@@ -0,0 +1,194 @@
+package fr.polytech.benchmark;
+
+import fr.polytech.App;
+import fr.polytech.model.Reference;
+import fr.polytech.repository.ReferenceRepository;
+import fr.polytech.stub.StubSecurity;
+import fr.polytech.stub.StubServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the throughput and the latency of the detailed references served on the Tomcat thread pool and on virtual threads.
+ * Both downstream APIs are stubs answering after a fixed latency, and the caches are disabled so that every request
+ * makes both calls. Run with: mvn test -P benchmark (requires Java 21), the load being set by the benchmark.concurrency,
+ * benchmark.warmup-seconds and benchmark.measurement-seconds system properties. The report is written to target/benchmark.
+ */
+@Tag("benchmark")
+public class VirtualThreadsBenchmarkTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 5));
+
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("benchmark.measurement-seconds", 20));
+
+    private static final Duration DOWNSTREAM_LATENCY = Duration.ofMillis(50);
+
+    private final Logger logger = LoggerFactory.getLogger(VirtualThreadsBenchmarkTest.class);
+
+    @Test
+    public void compareThreadModels() throws Exception {
+        try (StubServer companyApi = new StubServer(); StubServer userApi = new StubServer()) {
+            companyApi.setLatency(DOWNSTREAM_LATENCY);
+            userApi.setLatency(DOWNSTREAM_LATENCY);
+
+            Result platform = run("platform", false, companyApi, userApi);
+            Result virtual = run("virtual", true, companyApi, userApi);
+
+            String report = Result.HEADER + "\n" + platform + "\n" + virtual + "\n";
+            Path reportPath = Path.of("target", "benchmark", "virtual-threads.txt");
+            Files.createDirectories(reportPath.getParent());
+            Files.writeString(reportPath, report);
+            logger.info("Thread model benchmark, {} concurrent clients:\n{}", CONCURRENCY, report);
+
+            assertTrue(platform.requests() > 0 && virtual.requests() > 0);
+        }
+    }
+
+    /**
+     * Start the application in a thread model and load its detailed reference endpoint.
+     *
+     * @param mode           Name of the thread model.
+     * @param virtualThreads Whether the virtual thread mode is enabled.
+     * @param companyApi     Stub of the company API.
+     * @param userApi        Stub of the user API.
+     * @return Measures of the run.
+     * @throws Exception If the load cannot be driven.
+     */
+    private Result run(String mode, boolean virtualThreads, StubServer companyApi, StubServer userApi) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class, StubSecurity.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--eureka.client.enabled=false",
+                        "--reference.virtual-threads.enabled=" + virtualThreads,
+                        "--spring.cloud.discovery.client.simple.instances.company-stub[0].uri=" + companyApi.getUri(),
+                        "--spring.cloud.discovery.client.simple.instances.user-stub[0].uri=" + userApi.getUri(),
+                        "--downstream.company.uri=http://company-stub/companies",
+                        "--downstream.user.uri=http://user-stub/users",
+                        "--downstream.company.timeout=3s",
+                        "--downstream.user.timeout=3s",
+                        "--downstream.company.bulkhead.max-concurrent-calls=10000",
+                        "--downstream.user.bulkhead.max-concurrent-calls=10000",
+                        "--cache.company.max-size=0",
+                        "--cache.recruiter.max-size=0",
+                        "--logging.level.fr.polytech=WARN")) {
+            ReferenceRepository referenceRepository = context.getBean(ReferenceRepository.class);
+            referenceRepository.deleteAll();
+            Reference reference = new Reference();
+            reference.setContact("contact");
+            reference.setCompanyId(UUID.randomUUID());
+            reference.setContactId(UUID.randomUUID());
+            reference.setContactJobTitle("jobTitle");
+            UUID id = referenceRepository.save(reference).getId();
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/reference/detailed/batch"))
+                    .header("Authorization", "Bearer benchmark")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("[\"" + id + "\"]"))
+                    .build();
+
+            drive(request, WARMUP);
+            return Result.of(mode, drive(request, MEASUREMENT), MEASUREMENT);
+        }
+    }
+
+    /**
+     * Send the request in a closed loop from the concurrent clients for a duration.
+     *
+     * @param request  Request to send.
+     * @param duration Duration of the load.
+     * @return Latencies of the successful requests in microseconds, and the number of failed ones.
+     * @throws Exception If a client fails unexpectedly.
+     */
+    private Samples drive(HttpRequest request, Duration duration) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        AtomicInteger errors = new AtomicInteger();
+        long end = System.nanoTime() + duration.toNanos();
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                futures.add(clients.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            latencies.add((System.nanoTime() - start) / 1_000);
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                latencies.addAll(future.get());
+            }
+            return new Samples(latencies.stream().mapToLong(Long::longValue).sorted().toArray(), errors.get());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Latencies of a run, sorted, in microseconds.
+     *
+     * @param latencies Latencies of the successful requests.
+     * @param errors    Number of failed requests.
+     */
+    private record Samples(long[] latencies, int errors) {
+    }
+
+    /**
+     * Measures of a thread model.
+     */
+    private record Result(String mode, int requests, int errors, double throughput, long p50, long p99, long max) {
+
+        static final String HEADER = String.format("%-10s %10s %8s %12s %10s %10s %10s", "mode", "requests", "errors", "req/s", "p50 (ms)", "p99 (ms)", "max (ms)");
+
+        static Result of(String mode, Samples samples, Duration duration) {
+            long[] latencies = samples.latencies();
+            if (latencies.length == 0) {
+                return new Result(mode, 0, samples.errors(), 0, 0, 0, 0);
+            }
+            return new Result(mode, latencies.length, samples.errors(), latencies.length / (duration.toMillis() / 1000.0),
+                    percentile(latencies, 50), percentile(latencies, 99), latencies[latencies.length - 1]);
+        }
+
+        static long percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %10d %8d %12.1f %10.1f %10.1f %10.1f", mode, requests, errors, throughput, p50 / 1000.0, p99 / 1000.0, max / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package fr.polytech.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtAuthConverterTest {
+
+    private final JwtAuthConverter converter = new JwtAuthConverter("preferred_username", "reference-api", 100);
+
+    /**
+     * Test that the authorities are taken from the scopes and the roles of the resource.
+     */
+    @Test
+    public void testConvert() {
+        AbstractAuthenticationToken authentication = converter.convert(newJwt("token", Instant.now().plusSeconds(60)));
+
+        assertEquals("user", authentication.getName());
+        assertEquals(Set.of("SCOPE_profile", "ROLE_client_admin"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+    }
+
+    /**
+     * Test that the authorities of a token are computed once, each request still getting its own authentication.
+     */
+    @Test
+    public void testAuthoritiesAreCachedByToken() {
+        AbstractAuthenticationToken first = converter.convert(newJwt("token", Instant.now().plusSeconds(60)));
+        AbstractAuthenticationToken second = converter.convert(newJwt("token", Instant.now().plusSeconds(60)));
+        AbstractAuthenticationToken other = converter.convert(newJwt("other", Instant.now().plusSeconds(60)));
+
+        assertNotSame(first, second);
+        assertSame(first.getAuthorities().iterator().next(), second.getAuthorities().iterator().next());
+        assertNotSame(first.getAuthorities().iterator().next(), other.getAuthorities().iterator().next());
+    }
+
+    /**
+     * Test that the authorities of an expired token are computed again.
+     */
+    @Test
+    public void testExpiredTokenIsNotCached() {
+        AbstractAuthenticationToken first = converter.convert(newJwt("expired", Instant.now().minusSeconds(1)));
+        AbstractAuthenticationToken second = converter.convert(newJwt("expired", Instant.now().minusSeconds(1)));
+
+        assertNotSame(first.getAuthorities().iterator().next(), second.getAuthorities().iterator().next());
+    }
+
+    /**
+     * Build a decoded token of a client admin.
+     *
+     * @param tokenValue Value of the token.
+     * @param expiresAt  Expiry of the token.
+     * @return Jwt
+     */
+    private Jwt newJwt(String tokenValue, Instant expiresAt) {
+        return Jwt.withTokenValue(tokenValue)
+                .header("alg", "RS256")
+                .claim("preferred_username", "user")
+                .claim("scope", "profile")
+                .claim("resource_access", Map.of("reference-api", Map.of("roles", List.of("client_admin"))))
+                .issuedAt(expiresAt.minusSeconds(300))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
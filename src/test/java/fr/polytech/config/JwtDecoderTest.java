@@ -0,0 +1,133 @@
+package fr.polytech.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import fr.polytech.stub.StubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class JwtDecoderTest {
+
+    private static final String ISSUER = "http://issuer";
+
+    private static final StubServer issuer;
+
+    private static final RSAKey firstKey;
+
+    static {
+        try {
+            issuer = new StubServer();
+            firstKey = new RSAKeyGenerator(2048).keyID("first").generate();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        issuer.respond(200, new JWKSet(firstKey.toPublicJWK()).toString());
+    }
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    /**
+     * Serve the JWK set from the stub, fetch it at startup, and allow an immediate refresh on an unknown key.
+     *
+     * @param registry Registry of the test properties.
+     */
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", () -> ISSUER);
+        registry.add("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", () -> issuer.getUri() + "/certs");
+        registry.add("security.jwt.jwk-set.warm-up", () -> "true");
+        registry.add("security.jwt.jwk-set.min-refresh-interval", () -> "1ms");
+    }
+
+    @AfterAll
+    public static void stopStub() {
+        issuer.close();
+    }
+
+    /**
+     * Test that the keys fetched at startup are used for every token, without calling the issuer again.
+     */
+    @Test
+    public void testKeysAreKeptInMemory() throws JOSEException {
+        issuer.drainRequests();
+
+        for (int i = 0; i < 5; i++) {
+            Jwt jwt = jwtDecoder.decode(sign(firstKey, ISSUER));
+            assertEquals("user", jwt.getSubject());
+        }
+        assertEquals(0, issuer.drainRequests());
+    }
+
+    /**
+     * Test that a token signed with a new key makes the JWK set fetched again.
+     */
+    @Test
+    public void testUnknownKeyRefreshesKeys() throws JOSEException {
+        RSAKey secondKey = new RSAKeyGenerator(2048).keyID("second").generate();
+        issuer.respond(200, new JWKSet(List.of(firstKey.toPublicJWK(), secondKey.toPublicJWK())).toString());
+        issuer.drainRequests();
+
+        Jwt jwt = jwtDecoder.decode(sign(secondKey, ISSUER));
+
+        assertEquals("user", jwt.getSubject());
+        assertEquals(1, issuer.drainRequests());
+    }
+
+    /**
+     * Test that a token of another issuer is rejected.
+     */
+    @Test
+    public void testOtherIssuerIsRejected() throws JOSEException {
+        String token = sign(firstKey, "http://other-issuer");
+
+        assertThrows(JwtException.class, () -> jwtDecoder.decode(token));
+    }
+
+    /**
+     * Sign a token of a user.
+     *
+     * @param key    Signing key.
+     * @param issuer Issuer of the token.
+     * @return Serialized token.
+     * @throws JOSEException If the token cannot be signed.
+     */
+    private static String sign(RSAKey key, String issuer) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject("user")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
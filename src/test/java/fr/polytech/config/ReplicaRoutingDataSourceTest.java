@@ -0,0 +1,167 @@
+package fr.polytech.config;
+
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    /**
+     * Route between two in-memory databases, each holding its own name.
+     */
+    @BeforeEach
+    public void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        DataSource dataSource = instance();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * Test that the read-only transactions use the replica, and the other statements the primary.
+     */
+    @Test
+    public void testRoutesReadOnlyTransactionsToReplica() {
+        assertEquals("replica", readOnly.execute(status -> databaseName()));
+        assertEquals("primary", readWrite.execute(status -> databaseName()));
+        assertEquals("primary", databaseName());
+    }
+
+    /**
+     * Test that a user reads from the primary for the window following a write, the other users reading from the replica.
+     */
+    @Test
+    public void testRecentWriterReadsFromPrimary() {
+        authenticate("writer");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE database SET writes = writes + 1"));
+
+        assertEquals("primary", readOnly.execute(status -> databaseName()));
+        authenticate("reader");
+        assertEquals("replica", readOnly.execute(status -> databaseName()));
+
+        authenticate("writer");
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals("replica", readOnly.execute(status -> databaseName()));
+    }
+
+    /**
+     * Test that a rolled back transaction does not send its user to the primary.
+     */
+    @Test
+    public void testRolledBackWriteIsIgnored() {
+        authenticate("writer");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE database SET writes = writes + 1");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readOnly.execute(status -> databaseName()));
+    }
+
+    /**
+     * Test that the cookie of a write sends the next reads of its client to the primary on another instance, even
+     * without a principal, until the window is over.
+     */
+    @Test
+    public void testWriteCookieRoutesReadsOfAnotherInstance() {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), writeResponse));
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE database SET writes = writes + 1"));
+        Cookie lastWrite = writeResponse.getCookie(ReadYourWrites.LAST_WRITE_COOKIE);
+        assertNotNull(lastWrite);
+
+        DataSource otherDataSource = instance();
+        JdbcTemplate otherJdbcTemplate = new JdbcTemplate(otherDataSource);
+        TransactionTemplate otherInstance = new TransactionTemplate(new DataSourceTransactionManager(otherDataSource));
+        otherInstance.setReadOnly(true);
+        MockHttpServletRequest readRequest = new MockHttpServletRequest();
+        readRequest.setCookies(lastWrite);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(readRequest, new MockHttpServletResponse()));
+        assertEquals("primary", otherInstance.execute(status -> databaseName(otherJdbcTemplate)));
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals("replica", otherInstance.execute(status -> databaseName(otherJdbcTemplate)));
+    }
+
+    /**
+     * Create the data source of an instance, with its own tracking of the writers.
+     *
+     * @return DataSource routing between the primary and the replica.
+     */
+    private DataSource instance() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100, ticker::get, () -> TimeUnit.NANOSECONDS.toMillis(ticker.get()));
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readYourWrites));
+    }
+
+    private String databaseName() {
+        return databaseName(jdbcTemplate);
+    }
+
+    private static String databaseName(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT name FROM database", String.class);
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    /**
+     * Create an in-memory database holding its name.
+     *
+     * @param name Name of the database.
+     * @return DataSource of the database.
+     */
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS database (name VARCHAR(16), writes INT)");
+        jdbcTemplate.update("DELETE FROM database");
+        jdbcTemplate.update("INSERT INTO database VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
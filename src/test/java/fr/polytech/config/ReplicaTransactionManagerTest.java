@@ -0,0 +1,111 @@
+package fr.polytech.config;
+
+import fr.polytech.model.Reference;
+import fr.polytech.model.ReferenceDTO;
+import fr.polytech.repository.ReferenceRepository;
+import fr.polytech.service.ReferenceService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-cache-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.replica.url=jdbc:h2:mem:routing-cache-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.password="
+})
+@ActiveProfiles("test")
+public class ReplicaTransactionManagerTest {
+
+    @Autowired
+    private ReferenceService referenceService;
+
+    @Autowired
+    private ReferenceRepository referenceRepository;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private JdbcTemplate replica;
+
+    /**
+     * Create the schema of the replica, which Flyway only migrates on the primary, and start both databases empty.
+     */
+    @BeforeEach
+    public void setUp() {
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("DELETE FROM reference");
+        referenceRepository.deleteAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Test that a writer reads its own write while the replica lags behind, even after another user read the stale
+     * reference from the replica: that read must not have put it in the second-level cache or the query cache.
+     */
+    @Test
+    public void testReplicaReadsAreNotCached() {
+        authenticate("writer");
+        Reference reference = new Reference();
+        reference.setContact("before");
+        reference.setCompanyId(UUID.randomUUID());
+        reference.setContactId(UUID.randomUUID());
+        reference.setContactJobTitle("jobTitle");
+        Reference saved = referenceRepository.save(reference);
+        replicate(saved);
+
+        ReferenceDTO changes = new ReferenceDTO();
+        changes.setVersion(saved.getVersion());
+        changes.setContact("after");
+        referenceService.patchReference(saved.getId(), changes);
+        // The patched reference expires from the cache, while the replica has not caught up with the patch yet
+        entityManagerFactory.getCache().evictAll();
+
+        authenticate("reader");
+        assertEquals("before", referenceService.getReferenceById(saved.getId()).getContact());
+        assertEquals("before", referenceService.getReferenceByUserId(saved.getContactId()).get(0).contact());
+
+        authenticate("writer");
+        assertEquals("after", referenceService.getReferenceById(saved.getId()).getContact());
+        assertEquals("after", referenceService.getReferenceByUserId(saved.getContactId()).get(0).contact());
+    }
+
+    /**
+     * Copy a reference to the replica, as replication would.
+     *
+     * @param reference Reference to copy.
+     */
+    private void replicate(Reference reference) {
+        replica.update("INSERT INTO reference (id, contact, company_id, contact_id, contact_job_title, version) VALUES (?, ?, ?, ?, ?, ?)",
+                reference.getId(), reference.getContact(), reference.getCompanyId(), reference.getContactId(),
+                reference.getContactJobTitle(), reference.getVersion());
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,68 @@
+package fr.polytech.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SamplingTurboFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        filter = new SamplingTurboFilter(clock::get);
+        filter.addLoggerPrefix("fr.polytech");
+        filter.setMaxPerSecond(2);
+        filter.start();
+    }
+
+    /**
+     * Test that each logger keeps at most the configured number of events per second.
+     */
+    @Test
+    public void testSamplesPerLoggerAndSecond() {
+        Logger service = loggerContext.getLogger("fr.polytech.service.ApiService");
+        Logger controller = loggerContext.getLogger("fr.polytech.restcontroller.ReferenceController");
+
+        assertEquals(FilterReply.NEUTRAL, decide(service, Level.INFO));
+        assertEquals(FilterReply.NEUTRAL, decide(service, Level.DEBUG));
+        assertEquals(FilterReply.DENY, decide(service, Level.INFO));
+        assertEquals(FilterReply.NEUTRAL, decide(controller, Level.INFO));
+
+        clock.addAndGet(1000);
+        assertEquals(FilterReply.NEUTRAL, decide(service, Level.INFO));
+        assertEquals(1, filter.getDenied());
+    }
+
+    /**
+     * Test that warnings, disabled events and the other loggers are never sampled.
+     */
+    @Test
+    public void testIgnoresUnsampledEvents() {
+        Logger service = loggerContext.getLogger("fr.polytech.service.ApiService");
+        service.setLevel(Level.INFO);
+        Logger library = loggerContext.getLogger("org.hibernate.SQL");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(service, Level.WARN));
+            assertEquals(FilterReply.NEUTRAL, decide(service, Level.DEBUG));
+            assertEquals(FilterReply.NEUTRAL, decide(library, Level.INFO));
+        }
+        assertEquals(0, filter.getDenied());
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "message", null, null);
+    }
+}
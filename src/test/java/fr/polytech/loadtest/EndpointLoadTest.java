@@ -0,0 +1,202 @@
+package fr.polytech.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fr.polytech.App;
+import fr.polytech.model.Reference;
+import fr.polytech.repository.ReferenceRepository;
+import fr.polytech.stub.StubSecurity;
+import fr.polytech.stub.StubServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loads the read endpoints of the running application, the company and user APIs being local stubs, and reports
+ * the throughput and the latency percentiles of each endpoint. The endpoints are driven together, each at a fixed rate.
+ * Run with: mvn test -P loadtest, the load being set by the system properties below. The report is written to
+ * target/loadtest as text and JSON.
+ * <ul>
+ *     <li>loadtest.rate: requests per second and per endpoint (default 20)</li>
+ *     <li>loadtest.warmup-seconds, loadtest.duration-seconds: durations of the warm-up and of the measurement (default 10, 30)</li>
+ *     <li>loadtest.references: number of references seeded (default 1000)</li>
+ *     <li>loadtest.company.latency-ms, loadtest.user.latency-ms: latencies of the stubs (default 20)</li>
+ *     <li>loadtest.company.error-rate, loadtest.user.error-rate: shares of stub requests answered with a 500 (default 0)</li>
+ * </ul>
+ * The listing endpoints require the admin role, which the stub tokens do not carry, so they are not loaded here.
+ */
+@Tag("loadtest")
+public class EndpointLoadTest {
+
+    private static final int RATE = Integer.getInteger("loadtest.rate", 20);
+
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+
+    private static final int REFERENCES = Integer.getInteger("loadtest.references", 1000);
+
+    private static final int BATCH_SIZE = 10;
+
+    /**
+     * Detailed references with a section left out because its API failed.
+     */
+    private static final Predicate<String> PARTIAL = body -> body.contains("\"missing\":[\"");
+
+    private final Logger logger = LoggerFactory.getLogger(EndpointLoadTest.class);
+
+    @Test
+    public void loadReadEndpoints() throws Exception {
+        try (StubServer companyApi = new StubServer(); StubServer userApi = new StubServer()) {
+            companyApi.respond(200, "{\"id\":\"" + UUID.randomUUID() + "\",\"name\":\"Company\"}");
+            companyApi.setLatency(Duration.ofMillis(Long.getLong("loadtest.company.latency-ms", 20)));
+            companyApi.setErrorRate(Double.parseDouble(System.getProperty("loadtest.company.error-rate", "0")));
+            userApi.respond(200, "{\"id\":\"" + UUID.randomUUID() + "\",\"firstName\":\"Jane\",\"lastName\":\"Doe\"}");
+            userApi.setLatency(Duration.ofMillis(Long.getLong("loadtest.user.latency-ms", 20)));
+            userApi.setErrorRate(Double.parseDouble(System.getProperty("loadtest.user.error-rate", "0")));
+
+            try (ConfigurableApplicationContext context = start(companyApi, userApi)) {
+                List<Reference> references = seed(context.getBean(ReferenceRepository.class));
+                String baseUri = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port", Integer.class) + "/api/v1/reference";
+                List<RateDriver.Endpoint> endpoints = endpoints(baseUri, references);
+
+                drive(endpoints, WARMUP);
+                List<EndpointResult> results = drive(endpoints, DURATION);
+
+                String report = EndpointResult.HEADER + "\n" + results.stream().map(EndpointResult::toString).collect(Collectors.joining("\n")) + "\n";
+                Path reportDirectory = Path.of("target", "loadtest");
+                Files.createDirectories(reportDirectory);
+                Files.writeString(reportDirectory.resolve("report.txt"), report);
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportDirectory.resolve("report.json").toFile(), results);
+                logger.info("Load test, {} requests/s per endpoint for {}s:\n{}", RATE, DURATION.toSeconds(), report);
+
+                assertTrue(results.stream().allMatch(result -> result.requests() > 0));
+            }
+        }
+    }
+
+    /**
+     * Start the application against the stubs, with its caches and resilience settings left as configured.
+     *
+     * @param companyApi Stub of the company API.
+     * @param userApi    Stub of the user API.
+     * @return Context of the application.
+     */
+    private ConfigurableApplicationContext start(StubServer companyApi, StubServer userApi) {
+        return new SpringApplicationBuilder(App.class, StubSecurity.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--eureka.client.enabled=false",
+                        "--spring.cloud.discovery.client.simple.instances.company-stub[0].uri=" + companyApi.getUri(),
+                        "--spring.cloud.discovery.client.simple.instances.user-stub[0].uri=" + userApi.getUri(),
+                        "--downstream.company.uri=http://company-stub/companies",
+                        "--downstream.user.uri=http://user-stub/users",
+                        "--logging.level.fr.polytech=WARN");
+    }
+
+    /**
+     * Replace the references with generated ones, a tenth as many contacts and companies as references.
+     *
+     * @param referenceRepository Repository of the application.
+     * @return Seeded references.
+     */
+    private List<Reference> seed(ReferenceRepository referenceRepository) {
+        referenceRepository.deleteAll();
+        List<UUID> contacts = IntStream.range(0, Math.max(1, REFERENCES / 10)).mapToObj(i -> UUID.randomUUID()).toList();
+        List<UUID> companies = IntStream.range(0, Math.max(1, REFERENCES / 10)).mapToObj(i -> UUID.randomUUID()).toList();
+        List<Reference> references = new ArrayList<>(REFERENCES);
+        for (int i = 0; i < REFERENCES; i++) {
+            Reference reference = new Reference();
+            reference.setContact("contact-" + i);
+            reference.setContactId(contacts.get(i % contacts.size()));
+            reference.setCompanyId(companies.get(i % companies.size()));
+            reference.setContactJobTitle("jobTitle");
+            references.add(reference);
+        }
+        return referenceRepository.saveAll(references);
+    }
+
+    /**
+     * Build the endpoints to load, each request picking random references.
+     *
+     * @param baseUri    Base URI of the reference API.
+     * @param references Seeded references.
+     * @return Endpoints.
+     */
+    private List<RateDriver.Endpoint> endpoints(String baseUri, List<Reference> references) {
+        return List.of(
+                new RateDriver.Endpoint("GET /{id}", () -> get(baseUri + "/" + random(references).getId()), null),
+                new RateDriver.Endpoint("GET /user/{id}", () -> get(baseUri + "/user/" + random(references).getContactId()), null),
+                new RateDriver.Endpoint("GET /detailed/{id}", () -> get(baseUri + "/detailed/" + random(references).getId()), PARTIAL),
+                new RateDriver.Endpoint("POST /detailed/batch", () -> {
+                    String ids = IntStream.range(0, BATCH_SIZE)
+                            .mapToObj(i -> "\"" + random(references).getId() + "\"")
+                            .collect(Collectors.joining(",", "[", "]"));
+                    return authorized(baseUri + "/detailed/batch")
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(ids))
+                            .build();
+                }, PARTIAL));
+    }
+
+    /**
+     * Drive all the endpoints at the same time, each from its own thread.
+     *
+     * @param endpoints Endpoints to load.
+     * @param duration  Duration of the load.
+     * @return Result of each endpoint.
+     * @throws Exception If an endpoint cannot be driven.
+     */
+    private List<EndpointResult> drive(List<RateDriver.Endpoint> endpoints, Duration duration) throws Exception {
+        RateDriver driver = new RateDriver(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build());
+        ExecutorService drivers = Executors.newFixedThreadPool(endpoints.size());
+        try {
+            List<Future<EndpointResult>> futures = new ArrayList<>();
+            for (RateDriver.Endpoint endpoint : endpoints) {
+                futures.add(drivers.submit(() -> driver.drive(endpoint, RATE, duration)));
+            }
+            List<EndpointResult> results = new ArrayList<>();
+            for (Future<EndpointResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            drivers.shutdownNow();
+        }
+    }
+
+    private static HttpRequest get(String uri) {
+        return authorized(uri).GET().build();
+    }
+
+    private static HttpRequest.Builder authorized(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).header("Authorization", "Bearer load");
+    }
+
+    private static Reference random(List<Reference> references) {
+        return references.get(ThreadLocalRandom.current().nextInt(references.size()));
+    }
+}
@@ -0,0 +1,62 @@
+package fr.polytech.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Measures of an endpoint under load, latencies in milliseconds.
+ *
+ * @param endpoint   Name of the endpoint.
+ * @param targetRate Requests per second asked for.
+ * @param requests   Number of requests sent.
+ * @param errors     Number of requests answered with a 4xx or a 5xx, or not answered.
+ * @param degraded   Number of successful responses with missing sections.
+ * @param throughput Requests answered per second.
+ * @param p50        Median latency.
+ * @param p90        90th percentile latency.
+ * @param p99        99th percentile latency.
+ * @param p999       99.9th percentile latency.
+ * @param max        Maximum latency.
+ * @param statuses   Number of responses per status ("failed" when no response was received).
+ */
+public record EndpointResult(String endpoint, int targetRate, long requests, long errors, long degraded, double throughput,
+                             double p50, double p90, double p99, double p999, double max, Map<String, Long> statuses) {
+
+    static final String HEADER = String.format("%-24s %8s %9s %7s %9s %9s %9s %9s %9s %9s %9s",
+            "endpoint", "target/s", "requests", "errors", "degraded", "req/s", "p50 (ms)", "p90 (ms)", "p99 (ms)", "p99.9 (ms)", "max (ms)");
+
+    /**
+     * Summarize a run.
+     *
+     * @param endpoint   Name of the endpoint.
+     * @param targetRate Requests per second asked for.
+     * @param histogram  Latencies in microseconds.
+     * @param statuses   Number of responses per status.
+     * @param degraded   Number of degraded responses.
+     * @param elapsed    Duration of the run, requests in flight included.
+     * @return EndpointResult
+     */
+    static EndpointResult of(String endpoint, int targetRate, Histogram histogram, Map<String, Long> statuses, long degraded, Duration elapsed) {
+        long errors = statuses.entrySet().stream()
+                .filter(entry -> entry.getKey().equals("failed") || Integer.parseInt(entry.getKey()) >= 400)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        return new EndpointResult(endpoint, targetRate, histogram.getTotalCount(), errors, degraded,
+                histogram.getTotalCount() / (elapsed.toMillis() / 1000.0),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()), statuses);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-24s %8d %9d %7d %9d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s",
+                endpoint, targetRate, requests, errors, degraded, throughput, p50, p90, p99, p999, max, statuses);
+    }
+}
@@ -0,0 +1,89 @@
+package fr.polytech.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Sends the requests of an endpoint at a fixed rate, whatever the latency of the previous ones (open loop).
+ * Each latency is measured from the time its request was due, so that a stalled server shows in the percentiles
+ * instead of slowing the load down.
+ */
+public class RateDriver {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient httpClient;
+
+    public RateDriver(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Endpoint under load.
+     *
+     * @param name     Name of the endpoint in the report.
+     * @param requests Supplier of the requests, called for each request.
+     * @param degraded Tells whether a successful response body is degraded (partial), may be null.
+     */
+    public record Endpoint(String name, Supplier<HttpRequest> requests, Predicate<String> degraded) {
+    }
+
+    /**
+     * Drive an endpoint at a rate for a duration, then wait for the requests still in flight.
+     *
+     * @param endpoint Endpoint to drive.
+     * @param rate     Requests per second.
+     * @param duration Duration of the load.
+     * @return Result of the run.
+     */
+    public EndpointResult drive(Endpoint endpoint, int rate, Duration duration) {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        Map<String, AtomicLong> statuses = new ConcurrentHashMap<>();
+        AtomicLong degraded = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long count = duration.toNanos() / intervalNanos;
+        List<CompletableFuture<?>> inFlight = new ArrayList<>((int) count);
+
+        long start = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.add(httpClient.sendAsync(endpoint.requests().get(), HttpResponse.BodyHandlers.ofString())
+                    .orTimeout(1, TimeUnit.MINUTES)
+                    .handle((response, failure) -> {
+                        histogram.recordValue(Math.min((System.nanoTime() - due) / 1_000, HIGHEST_LATENCY_MICROS));
+                        String status = failure != null ? "failed" : String.valueOf(response.statusCode());
+                        statuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+                        if (failure == null && response.statusCode() < 400 && endpoint.degraded() != null && endpoint.degraded().test(response.body())) {
+                            degraded.incrementAndGet();
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, counter) -> statusCounts.put(status, counter.get()));
+        return EndpointResult.of(endpoint.name(), rate, histogram, statusCounts, degraded.get(), elapsed);
+    }
+}
@@ -0,0 +1,127 @@
+package fr.polytech.repository;
+
+import fr.polytech.model.Reference;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=fr.polytech.repository.ReferenceRepositoryTest$CapturingStatementInspector")
+@ActiveProfiles("test")
+public class ReferenceRepositoryTest {
+
+    @Autowired
+    private ReferenceRepository referenceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Fill the table with references of a few contacts and companies.
+     */
+    @BeforeEach
+    public void setUp() {
+        referenceRepository.deleteAll();
+        for (int i = 0; i < 20; i++) {
+            Reference reference = new Reference();
+            reference.setContactId(UUID.randomUUID());
+            reference.setCompanyId(UUID.randomUUID());
+            referenceRepository.save(reference);
+        }
+    }
+
+    /**
+     * Test that the query Hibernate generates for the references of a contact uses the contact_id index.
+     */
+    @Test
+    public void testFindByContactIdUsesIndex() {
+        UUID contactId = UUID.randomUUID();
+        String sql = capture(() -> referenceRepository.findByContactId(contactId));
+
+        String plan = explain(sql, contactId);
+        assertTrue(plan.contains("IDX_REFERENCE_CONTACT_ID"), plan);
+    }
+
+    /**
+     * Test that the query Hibernate generates for the references of a company uses the company_id index.
+     */
+    @Test
+    public void testFindByCompanyIdUsesIndex() {
+        UUID companyId = UUID.randomUUID();
+        String sql = capture(() -> transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("SELECT r FROM Reference r WHERE r.companyId = :id", Reference.class)
+                .setParameter("id", companyId)
+                .getResultList()));
+
+        String plan = explain(sql, companyId);
+        assertTrue(plan.contains("IDX_REFERENCE_COMPANY_ID"), plan);
+    }
+
+    /**
+     * Test that the repository query still returns the references of a contact.
+     */
+    @Test
+    public void testFindByContactId() {
+        Reference reference = new Reference();
+        reference.setContactId(UUID.randomUUID());
+        referenceRepository.save(reference);
+
+        assertEquals(1, referenceRepository.findByContactId(reference.getContactId()).size());
+    }
+
+    /**
+     * Run a lookup and get the single statement Hibernate sent for it.
+     *
+     * @param lookup Lookup to run.
+     * @return SQL of the statement.
+     */
+    private String capture(Runnable lookup) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        lookup.run();
+        List<String> statements = List.copyOf(CapturingStatementInspector.STATEMENTS);
+        assertEquals(1, statements.size(), statements::toString);
+        return statements.get(0);
+    }
+
+    /**
+     * Get the execution plan of a query.
+     *
+     * @param sql        Query to explain.
+     * @param parameters Values of its parameters.
+     * @return Execution plan, as printed by the database.
+     */
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    /**
+     * Records the SQL of the statements prepared by Hibernate, leaving them unchanged.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,29 +1,59 @@
 package fr.polytech.restcontroller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.polytech.model.DetailedReferenceDTO;
 import fr.polytech.model.Reference;
 import fr.polytech.model.ReferenceDTO;
+import fr.polytech.model.ReferencePage;
+import fr.polytech.model.ReferenceView;
+import fr.polytech.service.ReferenceEtag;
 import fr.polytech.service.ReferenceService;
+import fr.polytech.service.ServerTiming;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.client.HttpClientErrorException;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(value = ReferenceController.class)
+@Import(ReferenceControllerTest.MethodSecurity.class)
 @TestPropertySource(locations = "classpath:application-test.properties")
 @ActiveProfiles("test")
 public class ReferenceControllerTest {
@@ -35,16 +65,101 @@ public class ReferenceControllerTest {
     private ReferenceService referenceService;
 
     /**
-     * Test that the endpoint returns a list of references.
+     * Test that the endpoint returns a page of references as a list, with the cursor of the next page in the headers.
      *
      * @throws Exception If an error occurs.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "client_admin")
     public void testGetAllReferences() throws Exception {
-        given(referenceService.getAllReferences()).willReturn(Arrays.asList(new Reference(), new Reference()));
+        given(referenceService.getReferencePage("previous", 2)).willReturn(new ReferencePage(Arrays.asList(newReferenceView(), newReferenceView()), "cursor"));
+        mockMvc.perform(get("/api/v1/reference/?cursor=previous&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string(ReferenceController.NEXT_CURSOR_HEADER, "cursor"))
+                .andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/v1/reference/?size=2&cursor=cursor>; rel=\"next\""));
+    }
+
+    /**
+     * Test that the last page of references comes without a cursor.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_admin")
+    public void testGetAllReferencesLastPage() throws Exception {
+        given(referenceService.getReferencePage(null, null)).willReturn(new ReferencePage(List.of(newReferenceView()), null));
         mockMvc.perform(get("/api/v1/reference/"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(ReferenceController.NEXT_CURSOR_HEADER))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    /**
+     * Test that the endpoint streams the references gzipped when the client accepts it.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_admin")
+    public void testExportReferencesGzipped() throws Exception {
+        willAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("{\"contact\":\"contact\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(referenceService).exportReferences(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reference/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("{\"contact\":\"contact\"}\n", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Test that the endpoint streams the references as they are when the client refuses gzip with a zero weight.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_admin")
+    public void testExportReferencesGzipRefused() throws Exception {
+        willAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("{\"contact\":\"contact\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(referenceService).exportReferences(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reference/export").header(HttpHeaders.ACCEPT_ENCODING, "identity, gzip;q=0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string("{\"contact\":\"contact\"}\n"));
+    }
+
+    /**
+     * Test that the weights of the Accept-Encoding header are honoured.
+     */
+    @Test
+    public void testAcceptsGzip() {
+        assertFalse(ReferenceController.acceptsGzip(null));
+        assertFalse(ReferenceController.acceptsGzip("identity"));
+        assertTrue(ReferenceController.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertFalse(ReferenceController.acceptsGzip("gzip;q=0"));
+        assertFalse(ReferenceController.acceptsGzip("gzip; q=0.000, *"));
+        assertTrue(ReferenceController.acceptsGzip("br, *;q=0.1"));
+        assertFalse(ReferenceController.acceptsGzip("*;q=0"));
+        assertFalse(ReferenceController.acceptsGzip("gzipped"));
     }
 
     /**
@@ -62,12 +177,127 @@ public class ReferenceControllerTest {
     }
 
     /**
-     * Test that the endpoint creates a reference.
+     * Test that the endpoint answers a detailed reference once both lookups are over.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser
+    public void testGetDetailedReferenceById() throws Exception {
+        UUID id = UUID.randomUUID();
+        DetailedReferenceDTO detailedReference = new DetailedReferenceDTO();
+        detailedReference.setId(id);
+        detailedReference.getMissing().add(DetailedReferenceDTO.COMPANY_SECTION);
+        given(referenceService.getDetailedReferenceByIdAsync(id, "token", ServerTiming.DISABLED)).willReturn(CompletableFuture.completedFuture(detailedReference));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reference/detailed/" + id).header(HttpHeaders.AUTHORIZATION, "token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id.toString()))
+                .andExpect(jsonPath("$.missing[0]").value(DetailedReferenceDTO.COMPANY_SECTION))
+                .andExpect(header().doesNotExist(ServerTiming.HEADER));
+    }
+
+    /**
+     * Test that the endpoint answers a 404 when the detailed reference is not found.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser
+    public void testGetDetailedReferenceByIdNotFound() throws Exception {
+        UUID id = UUID.randomUUID();
+        given(referenceService.getDetailedReferenceByIdAsync(id, "token", ServerTiming.DISABLED))
+                .willReturn(CompletableFuture.failedFuture(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reference/detailed/" + id).header(HttpHeaders.AUTHORIZATION, "token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test that the endpoint returns a list of detailed references.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser
+    public void testGetDetailedReferencesByIds() throws Exception {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        given(referenceService.getDetailedReferencesByIds(ids, "token")).willReturn(List.of(new DetailedReferenceDTO(), new DetailedReferenceDTO()));
+        mockMvc.perform(post("/api/v1/reference/detailed/batch")
+                        .header("Authorization", "token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(ids))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    /**
+     * Test that the endpoint answers 304 without loading the reference when the client has its current version.
      *
      * @throws Exception If an error occurs.
      */
     @Test
     @WithMockUser
+    public void testGetReferenceByIdNotModified() throws Exception {
+        UUID id = UUID.randomUUID();
+        given(referenceService.getReferenceEtag(id)).willReturn("\"3\"");
+        mockMvc.perform(get("/api/v1/reference/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"2\", W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        verify(referenceService, never()).getReferenceById(id);
+    }
+
+    /**
+     * Test that the entity tag sent with a reference is the one of the version returned, even when the version checked
+     * against the client's tag is older.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser
+    public void testGetReferenceByIdModifiedSendsReturnedVersion() throws Exception {
+        UUID id = UUID.randomUUID();
+        Reference reference = new Reference();
+        reference.setId(id);
+        reference.setVersion(4L);
+        given(referenceService.getReferenceEtag(id)).willReturn("\"3\"");
+        given(referenceService.getReferenceById(id)).willReturn(reference);
+        mockMvc.perform(get("/api/v1/reference/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(4))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    /**
+     * Test that the endpoint returns the references of a user with their entity tag.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser
+    public void testGetReferenceByUserId() throws Exception {
+        UUID id = UUID.randomUUID();
+        List<ReferenceView> references = List.of(newReferenceView());
+        given(referenceService.getReferenceByUserId(id)).willReturn(references);
+        mockMvc.perform(get("/api/v1/reference/user/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ReferenceEtag.ofViews(references)));
+    }
+
+    /**
+     * Test that the endpoint creates a reference.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_candidate")
     public void testCreateReference() throws Exception {
         ReferenceDTO referenceDTO = new ReferenceDTO();
         // Set properties for referenceDTO as needed
@@ -92,13 +322,37 @@ public class ReferenceControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    /**
+     * Test that the endpoint creates references.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_candidate")
+    public void testCreateReferences() throws Exception {
+        ReferenceDTO referenceDTO = new ReferenceDTO();
+        referenceDTO.setContact("contact");
+        referenceDTO.setCompanyId(UUID.randomUUID());
+        referenceDTO.setContactId(UUID.randomUUID());
+        referenceDTO.setContactJobTitle("jobTitle");
+
+        given(referenceService.createReferences(any())).willReturn(List.of(new Reference(), new Reference()));
+
+        mockMvc.perform(post("/api/v1/reference/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(List.of(referenceDTO, referenceDTO)))
+                        .with(csrf()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     /**
      * Test that the endpoint updates a reference.
      *
      * @throws Exception If an error occurs.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "client_candidate")
     public void testUpdateReference() throws Exception {
         ReferenceDTO referenceDTO = new ReferenceDTO();
         // Set properties for referenceDTO as needed
@@ -129,10 +383,90 @@ public class ReferenceControllerTest {
      * @throws Exception If an error occurs.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "client_candidate")
     public void testDeleteReference() throws Exception {
         UUID id = UUID.randomUUID();
         mockMvc.perform(delete("/api/v1/reference/" + id).with(csrf()))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that an admin deletes references by ids.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_admin")
+    public void testDeleteReferences() throws Exception {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        given(referenceService.deleteReferences(ids)).willReturn(2);
+        mockMvc.perform(post("/api/v1/reference/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(ids))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    /**
+     * Test that a candidate cannot delete references by ids.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_candidate")
+    public void testDeleteReferencesForbidden() throws Exception {
+        mockMvc.perform(post("/api/v1/reference/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(List.of(UUID.randomUUID())))
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+        verify(referenceService, never()).deleteReferences(any());
+    }
+
+    /**
+     * Test that an admin deletes the references of a user.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_admin")
+    public void testDeleteReferencesByUserId() throws Exception {
+        UUID id = UUID.randomUUID();
+        given(referenceService.deleteReferencesByUserId(id)).willReturn(3);
+        mockMvc.perform(delete("/api/v1/reference/user/" + id).with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3"));
+    }
+
+    /**
+     * Test that a candidate cannot delete the references of a user.
+     *
+     * @throws Exception If an error occurs.
+     */
+    @Test
+    @WithMockUser(roles = "client_candidate")
+    public void testDeleteReferencesByUserIdForbidden() throws Exception {
+        UUID id = UUID.randomUUID();
+        mockMvc.perform(delete("/api/v1/reference/user/" + id).with(csrf()))
+                .andExpect(status().isForbidden());
+        verify(referenceService, never()).deleteReferencesByUserId(id);
+    }
+
+    /**
+     * Build a reference view with all its attributes set.
+     *
+     * @return Reference view.
+     */
+    private ReferenceView newReferenceView() {
+        return new ReferenceView(UUID.randomUUID(), "contact", UUID.randomUUID(), UUID.randomUUID(), "jobTitle", 0L);
+    }
+
+    /**
+     * Check the roles of the endpoints, as SecurityConfig does in the application.
+     */
+    @TestConfiguration
+    @EnableMethodSecurity
+    static class MethodSecurity {
+    }
+}
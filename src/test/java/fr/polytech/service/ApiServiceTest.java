@@ -0,0 +1,178 @@
+package fr.polytech.service;
+
+import fr.polytech.model.CompanyDTO;
+import fr.polytech.stub.StubServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ApiServiceTest {
+
+    private static final StubServer companyApi;
+
+    static {
+        try {
+            companyApi = new StubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private ApiService apiService;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Route the company API to the stub, through the simple discovery client, with small limits.
+     *
+     * @param registry Registry of the test properties.
+     */
+    @DynamicPropertySource
+    static void downstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.company-stub[0].uri", companyApi::getUri);
+        registry.add("downstream.company.breaker.sliding-window-size", () -> "4");
+        registry.add("downstream.company.breaker.minimum-calls", () -> "4");
+        registry.add("downstream.company.breaker.open-duration", () -> "1m");
+        registry.add("downstream.company.bulkhead.max-concurrent-calls", () -> "2");
+    }
+
+    @AfterAll
+    public static void stopStub() {
+        companyApi.close();
+    }
+
+    /**
+     * Start each test with a closed circuit and a healthy stub.
+     */
+    @BeforeEach
+    public void setUp() {
+        circuitBreakerRegistry.circuitBreaker(ApiService.COMPANY).reset();
+        companyApi.respond(200, "{}");
+        companyApi.setLatency(Duration.ZERO);
+        companyApi.drainRequests();
+    }
+
+    /**
+     * Test that the circuit opens after repeated server errors, the next calls failing without reaching the API.
+     */
+    @Test
+    public void testCircuitOpensOnServerErrors() {
+        companyApi.respond(500, "{}");
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, this::callCompanyApi);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker(ApiService.COMPANY).getState());
+        assertEquals(4, companyApi.drainRequests());
+
+        HttpServerErrorException exception = assertThrows(HttpServerErrorException.class, this::callCompanyApi);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(0, companyApi.drainRequests());
+    }
+
+    /**
+     * Test that client errors do not open the circuit.
+     */
+    @Test
+    public void testClientErrorsDoNotOpenCircuit() {
+        companyApi.respond(404, "{}");
+        for (int i = 0; i < 6; i++) {
+            assertThrows(HttpClientErrorException.class, this::callCompanyApi);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakerRegistry.circuitBreaker(ApiService.COMPANY).getState());
+    }
+
+    /**
+     * Test that the calls beyond the bulkhead limit are rejected instead of waiting for the slow API.
+     */
+    @Test
+    public void testBulkheadRejectsExcessCalls() {
+        companyApi.setLatency(Duration.ofMillis(300));
+        List<CompletableFuture<CompanyDTO>> calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            calls.add(CompletableFuture.supplyAsync(this::callCompanyApi));
+        }
+
+        long rejected = calls.stream().filter(call -> {
+            try {
+                call.join();
+                return false;
+            } catch (RuntimeException e) {
+                return e.getCause() instanceof HttpServerErrorException serverError
+                        && serverError.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE;
+            }
+        }).count();
+        assertTrue(rejected >= 1, "No call was rejected by the bulkhead");
+        assertTrue(companyApi.drainRequests() <= 2);
+    }
+
+    /**
+     * Test that the calls are timed per status, with their percentiles, rejected calls included.
+     */
+    @Test
+    public void testCallsAreTimed() {
+        long succeeded = countCalls("200");
+        long failed = countCalls("500");
+        long rejected = countCalls(DownstreamMetrics.REJECTED);
+
+        callCompanyApi();
+        companyApi.respond(500, "{}");
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpServerErrorException.class, this::callCompanyApi);
+        }
+
+        assertEquals(succeeded + 1, countCalls("200"));
+        assertEquals(failed + 3, countCalls("500"));
+        assertEquals(rejected + 2, countCalls(DownstreamMetrics.REJECTED));
+        Timer timer = meterRegistry.get(DownstreamMetrics.METRIC_NAME).tag("downstream", ApiService.COMPANY).tag("status", "200").timer();
+        assertEquals(3, timer.takeSnapshot().percentileValues().length);
+    }
+
+    /**
+     * Count the timed calls to the company API with a status.
+     *
+     * @param status Status tag.
+     * @return Number of calls.
+     */
+    private long countCalls(String status) {
+        Timer timer = meterRegistry.find(DownstreamMetrics.METRIC_NAME).tag("downstream", ApiService.COMPANY).tag("status", status).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    /**
+     * Call the company API stub.
+     *
+     * @return Company returned by the stub.
+     */
+    private CompanyDTO callCompanyApi() {
+        return apiService.makeApiCall(ApiService.COMPANY, "http://company-stub/companies/1", HttpMethod.GET, CompanyDTO.class, "Bearer token");
+    }
+}
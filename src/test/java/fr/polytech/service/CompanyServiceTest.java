@@ -0,0 +1,107 @@
+package fr.polytech.service;
+
+import fr.polytech.model.CompanyDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CompanyServiceTest {
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private ApiService apiService;
+
+    /**
+     * Start each test with an empty cache.
+     */
+    @BeforeEach
+    public void setUp() {
+        companyService.evictAllCompanies();
+    }
+
+    /**
+     * Test that a company is fetched only once from the company API.
+     */
+    @Test
+    public void testGetCompanyByIdIsCached() {
+        UUID id = UUID.randomUUID();
+        CompanyDTO company = new CompanyDTO();
+        given(apiService.makeApiCall(eq(ApiService.COMPANY), any(), eq(HttpMethod.GET), eq(CompanyDTO.class), any())).willReturn(company);
+
+        assertSame(company, companyService.getCompanyById(id, "Bearer token"));
+        assertSame(company, companyService.getCompanyById(id, "Bearer token"));
+
+        verify(apiService, times(1)).makeApiCall(any(), any(), any(), any(), any());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "company").tag("result", "hit").functionCounter().count() >= 1);
+    }
+
+    /**
+     * Test that an evicted company is fetched again from the company API.
+     */
+    @Test
+    public void testEvictCompany() {
+        UUID id = UUID.randomUUID();
+        given(apiService.makeApiCall(eq(ApiService.COMPANY), any(), eq(HttpMethod.GET), eq(CompanyDTO.class), any())).willReturn(new CompanyDTO());
+
+        companyService.getCompanyById(id, "Bearer token");
+        companyService.evictCompany(id);
+        companyService.getCompanyById(id, "Bearer token");
+
+        verify(apiService, times(2)).makeApiCall(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Test that a lookup joining another caller's lookup retries with its own token when that lookup is unauthorized,
+     * instead of failing with the other caller's 401.
+     */
+    @Test
+    public void testConcurrentLookupDoesNotShareAuthFailure() throws Exception {
+        UUID id = UUID.randomUUID();
+        CompanyDTO company = new CompanyDTO();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(apiService.makeApiCall(eq(ApiService.COMPANY), any(), eq(HttpMethod.GET), eq(CompanyDTO.class), eq("Bearer expired"))).willAnswer(invocation -> {
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+        });
+        given(apiService.makeApiCall(eq(ApiService.COMPANY), any(), eq(HttpMethod.GET), eq(CompanyDTO.class), eq("Bearer valid"))).willReturn(company);
+
+        CompletableFuture<CompanyDTO> expired = CompletableFuture.supplyAsync(() -> companyService.getCompanyById(id, "Bearer expired"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<CompanyDTO> valid = CompletableFuture.supplyAsync(() -> companyService.getCompanyById(id, "Bearer valid"));
+        Thread.sleep(100);
+        release.countDown();
+
+        Exception exception = assertThrows(Exception.class, () -> expired.get(5, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.UNAUTHORIZED, ((HttpClientErrorException) exception.getCause()).getStatusCode());
+        assertSame(company, valid.get(5, TimeUnit.SECONDS));
+        verify(apiService, times(1)).makeApiCall(any(), any(), any(), any(), eq("Bearer valid"));
+    }
+}
@@ -0,0 +1,169 @@
+package fr.polytech.service;
+
+import fr.polytech.model.CompanyDTO;
+import fr.polytech.stub.StubServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReactiveApiServiceTest {
+
+    private static final StubServer companyApi;
+
+    static {
+        try {
+            companyApi = new StubServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private ReactiveApiService reactiveApiService;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Route the company API to the stub, through the simple discovery client.
+     *
+     * @param registry Registry of the test properties.
+     */
+    @DynamicPropertySource
+    static void downstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.company-stub[0].uri", companyApi::getUri);
+    }
+
+    @AfterAll
+    public static void stopStub() {
+        companyApi.close();
+    }
+
+    /**
+     * Start each test with a closed circuit and a healthy stub.
+     */
+    @BeforeEach
+    public void setUp() {
+        circuitBreakerRegistry.circuitBreaker(ApiService.COMPANY).reset();
+        companyApi.respond(200, "{\"name\":\"company\"}");
+        companyApi.drainRequests();
+    }
+
+    /**
+     * Test that the response body is mapped to the requested type.
+     */
+    @Test
+    public void testMakeApiCall() {
+        CompanyDTO company = callCompanyApi("Bearer token");
+
+        assertEquals("company", company.getName());
+        assertEquals(1, companyApi.drainRequests());
+    }
+
+    /**
+     * Test that the errors of the API are thrown as by the blocking client.
+     */
+    @Test
+    public void testMakeApiCallErrors() {
+        companyApi.respond(404, "{}");
+        HttpClientErrorException notFound = assertThrows(HttpClientErrorException.class, () -> callCompanyApi("Bearer token"));
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+
+        companyApi.respond(502, "{}");
+        HttpServerErrorException badGateway = assertThrows(HttpServerErrorException.class, () -> callCompanyApi("Bearer token"));
+        assertEquals(HttpStatus.BAD_GATEWAY, badGateway.getStatusCode());
+
+        HttpClientErrorException unauthorized = assertThrows(HttpClientErrorException.class, () -> callCompanyApi("token"));
+        assertEquals(HttpStatus.UNAUTHORIZED, unauthorized.getStatusCode());
+    }
+
+    /**
+     * Test that only a 200 with a body is a success, as with the blocking client, an empty body failing the call with a
+     * server error counted by the circuit breaker instead of a missing resource.
+     */
+    @Test
+    public void testMakeApiCallUnexpectedResponses() {
+        companyApi.respond(202, "{\"name\":\"company\"}");
+        HttpClientErrorException accepted = assertThrows(HttpClientErrorException.class, () -> callCompanyApi("Bearer token"));
+        assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+
+        int failedCalls = circuitBreakerRegistry.circuitBreaker(ApiService.COMPANY).getMetrics().getNumberOfFailedCalls();
+        companyApi.respond(200, "");
+        HttpServerErrorException empty = assertThrows(HttpServerErrorException.class, () -> callCompanyApi("Bearer token"));
+        assertEquals(HttpStatus.BAD_GATEWAY, empty.getStatusCode());
+        assertEquals(failedCalls + 1, circuitBreakerRegistry.circuitBreaker(ApiService.COMPANY).getMetrics().getNumberOfFailedCalls());
+    }
+
+    /**
+     * Test that the calls are timed per status, a call abandoned by its caller being recorded as cancelled.
+     */
+    @Test
+    public void testCallsAreTimed() {
+        long succeeded = countCalls("200");
+        long notFound = countCalls("404");
+        long cancelled = countCalls(DownstreamMetrics.CANCELLED);
+
+        callCompanyApi("Bearer token");
+        companyApi.respond(404, "{}");
+        assertThrows(HttpClientErrorException.class, () -> callCompanyApi("Bearer token"));
+        companyApi.respond(200, "{}");
+        companyApi.setLatency(Duration.ofMillis(500));
+        try {
+            assertThrows(RuntimeException.class, () -> reactiveApiService
+                    .makeApiCall(ApiService.COMPANY, "http://company-stub/companies/1", HttpMethod.GET, CompanyDTO.class, "Bearer token")
+                    .timeout(Duration.ofMillis(50))
+                    .block());
+        } finally {
+            companyApi.setLatency(Duration.ZERO);
+        }
+
+        assertEquals(succeeded + 1, countCalls("200"));
+        assertEquals(notFound + 1, countCalls("404"));
+        assertEquals(cancelled + 1, countCalls(DownstreamMetrics.CANCELLED));
+    }
+
+    /**
+     * Count the timed calls to the company API with a status.
+     *
+     * @param status Status tag.
+     * @return Number of calls.
+     */
+    private long countCalls(String status) {
+        Timer timer = meterRegistry.find(DownstreamMetrics.METRIC_NAME).tag("downstream", ApiService.COMPANY).tag("status", status).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    /**
+     * Call the company API stub and wait for the answer.
+     *
+     * @param token Token of the user.
+     * @return Company returned by the stub.
+     */
+    private CompanyDTO callCompanyApi(String token) {
+        return reactiveApiService.makeApiCall(ApiService.COMPANY, "http://company-stub/companies/1", HttpMethod.GET, CompanyDTO.class, token)
+                .block(Duration.ofSeconds(5));
+    }
+}
@@ -1,19 +1,50 @@
 package fr.polytech.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.polytech.model.CompanyDTO;
+import fr.polytech.model.DetailedReferenceDTO;
 import fr.polytech.model.Reference;
 import fr.polytech.model.ReferenceDTO;
+import fr.polytech.model.ReferencePage;
+import fr.polytech.model.ReferenceView;
+import fr.polytech.model.user.RecruiterDTO;
 import fr.polytech.repository.ReferenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -25,17 +56,104 @@ public class ReferenceServiceTest {
     @Autowired
     private ReferenceService referenceService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CompanyService companyService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private ReactiveCompanyService reactiveCompanyService;
+
+    @MockBean
+    private ReactiveUserService reactiveUserService;
+
+    /**
+     * Start each test with an empty table.
+     */
+    @BeforeEach
+    public void setUp() {
+        referenceRepository.deleteAll();
+    }
+
     /**
-     * Test that the method returns a list of references.
+     * Test that the method returns the references of a user.
      */
     @Test
-    public void testGetAllReferences() {
-        referenceRepository.save(new Reference()); // Save some dummy data
-        referenceRepository.save(new Reference());
+    public void testGetReferenceByUserId() {
+        Reference savedReference = referenceRepository.save(newReference());
+        referenceRepository.save(newReference());
 
-        List<Reference> result = referenceService.getAllReferences();
-        assertNotNull(result);
-        assertEquals(2, result.size());
+        List<ReferenceView> result = referenceService.getReferenceByUserId(savedReference.getContactId());
+        assertEquals(1, result.size());
+        assertEquals(new ReferenceView(savedReference.getId(), savedReference.getContact(), savedReference.getCompanyId(),
+                savedReference.getContactId(), savedReference.getContactJobTitle(), savedReference.getVersion()), result.get(0));
+    }
+
+    /**
+     * Test that the method returns all the references page by page.
+     */
+    @Test
+    public void testGetReferencePage() {
+        for (int i = 0; i < 5; i++) {
+            referenceRepository.save(new Reference());
+        }
+
+        ReferencePage firstPage = referenceService.getReferencePage(null, 2);
+        ReferencePage secondPage = referenceService.getReferencePage(firstPage.getNextCursor(), 2);
+        ReferencePage lastPage = referenceService.getReferencePage(secondPage.getNextCursor(), 2);
+
+        assertEquals(2, firstPage.getReferences().size());
+        assertEquals(2, secondPage.getReferences().size());
+        assertEquals(1, lastPage.getReferences().size());
+        assertNull(lastPage.getNextCursor());
+        Set<UUID> ids = new HashSet<>();
+        Stream.of(firstPage, secondPage, lastPage).forEach(page -> page.getReferences().forEach(reference -> ids.add(reference.id())));
+        assertEquals(5, ids.size());
+    }
+
+    /**
+     * Test that the method throws an exception when the cursor is not valid.
+     */
+    @Test
+    public void testGetReferencePageWithInvalidCursor() {
+        // Check that an exception is thrown with status code 400
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> referenceService.getReferencePage("not-a-cursor", 2));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    /**
+     * Test that the method writes one JSON object per reference and per line.
+     *
+     * @throws IOException If the references cannot be written.
+     */
+    @Test
+    public void testExportReferences() throws IOException {
+        Reference savedReference = referenceRepository.save(newReference());
+        referenceRepository.save(newReference());
+        referenceRepository.save(newReference());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        referenceService.exportReferences(outputStream);
+
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains(savedReference.getId().toString())));
+        for (String line : lines) {
+            assertEquals("jobTitle", objectMapper.readValue(line, Reference.class).getContactJobTitle());
+        }
     }
 
     /**
@@ -60,6 +178,24 @@ public class ReferenceServiceTest {
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
     }
 
+    /**
+     * Test that the entity tag of the references of a user changes when one of them is updated.
+     */
+    @Test
+    public void testGetReferencesEtagByUserId() {
+        Reference savedReference = referenceRepository.save(newReference());
+        String etag = referenceService.getReferencesEtagByUserId(savedReference.getContactId());
+        assertEquals(ReferenceEtag.ofViews(referenceService.getReferenceByUserId(savedReference.getContactId())), etag);
+
+        ReferenceDTO changes = new ReferenceDTO();
+        changes.setContactJobTitle("newJobTitle");
+        changes.setVersion(savedReference.getVersion());
+        referenceService.patchReference(savedReference.getId(), changes);
+
+        assertNotEquals(etag, referenceService.getReferencesEtagByUserId(savedReference.getContactId()));
+        assertEquals(ReferenceEtag.ofVersion(savedReference.getVersion() + 1), referenceService.getReferenceEtag(savedReference.getId()));
+    }
+
     /**
      * Test that the method creates a reference.
      */
@@ -91,6 +227,38 @@ public class ReferenceServiceTest {
         assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
     }
 
+    /**
+     * Test that the method creates all the references, the inserts being sent in JDBC batches.
+     */
+    @Test
+    public void testCreateReferences() {
+        List<ReferenceDTO> references = Stream.generate(this::newReferenceDTO).limit(120).toList();
+
+        long statements = statistics().getPrepareStatementCount();
+        List<Reference> result = referenceService.createReferences(references);
+        long insertStatements = statistics().getPrepareStatementCount() - statements;
+
+        assertEquals(120, result.size());
+        assertTrue(result.stream().allMatch(reference -> reference.getId() != null));
+        assertEquals(120, referenceRepository.count());
+        // Batched inserts reuse a single prepared statement, unbatched ones prepare one per reference
+        assertTrue(insertStatements <= 3, "Inserts not batched: " + insertStatements + " statements");
+    }
+
+    /**
+     * Test that the method creates no reference when one of them is missing attributes.
+     */
+    @Test
+    public void testCreateReferencesWithMissingAttributes() {
+        ReferenceDTO invalidReference = newReferenceDTO();
+        invalidReference.setContactJobTitle(null);
+
+        // Check that an exception is thrown with status code 400
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> referenceService.createReferences(List.of(newReferenceDTO(), invalidReference)));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals(0, referenceRepository.count());
+    }
+
     /**
      * Test that the method updates a reference.
      */
@@ -145,6 +313,72 @@ public class ReferenceServiceTest {
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
     }
 
+    /**
+     * Test that the method throws an exception when the reference was modified since the given version.
+     */
+    @Test
+    public void testUpdateReferenceWithStaleVersion() {
+        Reference savedReference = referenceRepository.save(newReference());
+
+        ReferenceDTO reference = newReferenceDTO();
+        reference.setId(savedReference.getId());
+        reference.setVersion(savedReference.getVersion() + 1);
+
+        // Check that an exception is thrown with status code 409
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> referenceService.updateReference(reference));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    }
+
+    /**
+     * Test that the method only updates the given attributes and increments the version.
+     */
+    @Test
+    public void testPatchReference() {
+        Reference savedReference = referenceRepository.save(newReference());
+
+        ReferenceDTO changes = new ReferenceDTO();
+        changes.setContactJobTitle("newJobTitle");
+        changes.setVersion(savedReference.getVersion());
+
+        assertEquals(savedReference.getVersion() + 1, referenceService.patchReference(savedReference.getId(), changes));
+        Reference result = referenceRepository.findById(savedReference.getId()).orElseThrow();
+        assertEquals("newJobTitle", result.getContactJobTitle());
+        assertEquals(savedReference.getContact(), result.getContact());
+        assertEquals(savedReference.getCompanyId(), result.getCompanyId());
+        assertEquals(savedReference.getVersion() + 1, result.getVersion());
+    }
+
+    /**
+     * Test that the method throws an exception when the reference was modified since the given version.
+     */
+    @Test
+    public void testPatchReferenceWithStaleVersion() {
+        Reference savedReference = referenceRepository.save(newReference());
+
+        ReferenceDTO changes = new ReferenceDTO();
+        changes.setContactJobTitle("newJobTitle");
+        changes.setVersion(savedReference.getVersion());
+        referenceService.patchReference(savedReference.getId(), changes);
+
+        // Check that an exception is thrown with status code 409
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> referenceService.patchReference(savedReference.getId(), changes));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    }
+
+    /**
+     * Test that the method throws an exception when the reference to patch is not found.
+     */
+    @Test
+    public void testPatchReferenceWithInvalidId() {
+        ReferenceDTO changes = new ReferenceDTO();
+        changes.setContactJobTitle("newJobTitle");
+        changes.setVersion(0L);
+
+        // Check that an exception is thrown with status code 404
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> referenceService.patchReference(UUID.randomUUID(), changes));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
     /**
      * Test that the method deletes a reference.
      */
@@ -158,4 +392,363 @@ public class ReferenceServiceTest {
         assertFalse(referenceRepository.findById(savedReference.getId()).isPresent());
     }
 
+    /**
+     * Test that a reference read again is served by the second-level cache, without querying the database.
+     */
+    @Test
+    public void testGetReferenceByIdIsCached() {
+        Reference savedReference = referenceRepository.save(newReference());
+        referenceService.getReferenceById(savedReference.getId());
+
+        long statements = statistics().getPrepareStatementCount();
+        Reference result = referenceService.getReferenceById(savedReference.getId());
+
+        assertEquals(savedReference.getContact(), result.getContact());
+        assertEquals(statements, statistics().getPrepareStatementCount());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", Reference.CACHE_REGION).tag("result", "hit").functionCounter().count() > 0);
+    }
+
+    /**
+     * Test that patching or deleting a reference only evicts that reference: another cached reference is still read
+     * without querying the database.
+     */
+    @Test
+    public void testSingleWritesKeepOtherCachedReferences() {
+        Reference cachedReference = referenceRepository.save(newReference());
+        Reference patchedReference = referenceRepository.save(newReference());
+        Reference deletedReference = referenceRepository.save(newReference());
+        referenceService.getReferenceById(cachedReference.getId());
+
+        ReferenceDTO changes = new ReferenceDTO();
+        changes.setVersion(patchedReference.getVersion());
+        changes.setContact("patched");
+        referenceService.patchReference(patchedReference.getId(), changes);
+        referenceService.deleteReference(deletedReference.getId());
+
+        long statements = statistics().getPrepareStatementCount();
+        assertEquals(cachedReference.getContact(), referenceService.getReferenceById(cachedReference.getId()).getContact());
+        assertEquals(statements, statistics().getPrepareStatementCount());
+    }
+
+    /**
+     * Test that the updates and the deletions of a reference are seen by the next reads despite the cache.
+     */
+    @Test
+    public void testWritesInvalidateCachedReference() {
+        Reference savedReference = referenceRepository.save(newReference());
+        referenceService.getReferenceById(savedReference.getId());
+
+        ReferenceDTO update = newReferenceDTO();
+        update.setId(savedReference.getId());
+        update.setContact("updated");
+        referenceService.updateReference(update);
+        assertEquals("updated", referenceService.getReferenceById(savedReference.getId()).getContact());
+
+        ReferenceDTO changes = new ReferenceDTO();
+        changes.setVersion(referenceService.getReferenceById(savedReference.getId()).getVersion());
+        changes.setContact("patched");
+        referenceService.patchReference(savedReference.getId(), changes);
+        assertEquals("patched", referenceService.getReferenceById(savedReference.getId()).getContact());
+
+        referenceService.deleteReference(savedReference.getId());
+        assertThrows(HttpClientErrorException.class, () -> referenceService.getReferenceById(savedReference.getId()));
+    }
+
+    /**
+     * Test that an update without a version succeeds even if the cached reference was overwritten through another
+     * instance, which does not evict it from the cache of this one.
+     */
+    @Test
+    public void testUpdateReferenceWithStaleCachedReference() {
+        Reference savedReference = referenceRepository.save(newReference());
+        referenceService.getReferenceById(savedReference.getId());
+        jdbcTemplate.update("UPDATE reference SET contact = 'other instance', version = version + 1 WHERE id = ?", savedReference.getId());
+
+        ReferenceDTO update = newReferenceDTO();
+        update.setId(savedReference.getId());
+        update.setContact("updated");
+        Reference result = referenceService.updateReference(update);
+
+        assertEquals(savedReference.getVersion() + 2, result.getVersion());
+        assertEquals("updated", referenceService.getReferenceById(savedReference.getId()).getContact());
+    }
+
+    /**
+     * Test that the references of a user are served by the query cache until a reference is written.
+     */
+    @Test
+    public void testGetReferenceByUserIdIsCached() {
+        Reference savedReference = referenceRepository.save(newReference());
+        referenceService.getReferenceByUserId(savedReference.getContactId());
+
+        long statements = statistics().getPrepareStatementCount();
+        assertEquals(1, referenceService.getReferenceByUserId(savedReference.getContactId()).size());
+        assertEquals(statements, statistics().getPrepareStatementCount());
+
+        Reference otherReference = newReference();
+        otherReference.setContactId(savedReference.getContactId());
+        referenceRepository.save(otherReference);
+        assertEquals(2, referenceService.getReferenceByUserId(savedReference.getContactId()).size());
+    }
+
+    /**
+     * Test that the method throws an exception when the reference to delete is not found.
+     */
+    @Test
+    public void testDeleteReferenceWithInvalidId() {
+        // Check that an exception is thrown with status code 404
+        HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> referenceService.deleteReference(UUID.randomUUID()));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    /**
+     * Test that the method deletes the references with the given ids only.
+     */
+    @Test
+    public void testDeleteReferences() {
+        Reference first = referenceRepository.save(newReference());
+        Reference second = referenceRepository.save(newReference());
+        Reference kept = referenceRepository.save(newReference());
+
+        assertEquals(2, referenceService.deleteReferences(List.of(first.getId(), second.getId(), UUID.randomUUID())));
+        assertEquals(List.of(kept.getId()), referenceRepository.findAll().stream().map(Reference::getId).toList());
+    }
+
+    /**
+     * Test that the method deletes all the references of a user only.
+     */
+    @Test
+    public void testDeleteReferencesByUserId() {
+        UUID contactId = UUID.randomUUID();
+        Reference first = newReference();
+        first.setContactId(contactId);
+        Reference second = newReference();
+        second.setContactId(contactId);
+        referenceRepository.save(first);
+        referenceRepository.save(second);
+        Reference kept = referenceRepository.save(newReference());
+
+        assertEquals(2, referenceService.deleteReferencesByUserId(contactId));
+        assertEquals(List.of(kept.getId()), referenceRepository.findAll().stream().map(Reference::getId).toList());
+    }
+
+    /**
+     * Test that the method returns a partial reference when a downstream API does not answer in time.
+     */
+    @Test
+    public void testGetDetailedReferencesByIdsWithDownstreamTimeout() {
+        Reference savedReference = referenceRepository.save(newReference());
+        RecruiterDTO recruiter = new RecruiterDTO();
+
+        given(companyService.getCompanyById(any(), any())).willAnswer(invocation -> {
+            Thread.sleep(2000);
+            return new CompanyDTO();
+        });
+        given(userService.getRecruiterById(any(), any())).willReturn(recruiter);
+
+        DetailedReferenceDTO result = referenceService.getDetailedReferencesByIds(List.of(savedReference.getId()), "Bearer token").get(0);
+
+        assertNull(result.getCompany());
+        assertSame(recruiter, result.getContact());
+        assertEquals(List.of(DetailedReferenceDTO.COMPANY_SECTION), result.getMissing());
+    }
+
+    /**
+     * Test that the method returns a partial reference when a downstream API is unavailable.
+     */
+    @Test
+    public void testGetDetailedReferencesByIdsWithDownstreamUnavailable() {
+        Reference savedReference = referenceRepository.save(newReference());
+        CompanyDTO company = new CompanyDTO();
+
+        given(companyService.getCompanyById(any(), any())).willReturn(company);
+        given(userService.getRecruiterById(any(), any())).willThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        DetailedReferenceDTO result = referenceService.getDetailedReferencesByIds(List.of(savedReference.getId()), "Bearer token").get(0);
+
+        assertSame(company, result.getCompany());
+        assertNull(result.getContact());
+        assertEquals(List.of(DetailedReferenceDTO.CONTACT_SECTION), result.getMissing());
+    }
+
+    /**
+     * Test that the non-blocking method composes both lookups, a late API only leaving its section empty.
+     */
+    @Test
+    public void testGetDetailedReferenceByIdAsync() throws Exception {
+        Reference savedReference = referenceRepository.save(newReference());
+        RecruiterDTO recruiter = new RecruiterDTO();
+
+        given(reactiveCompanyService.getCompanyById(any(), any())).willReturn(Mono.just(new CompanyDTO()).delayElement(Duration.ofSeconds(2)));
+        given(reactiveUserService.getRecruiterById(any(), any())).willReturn(Mono.just(recruiter).delayElement(Duration.ofMillis(100)));
+
+        DetailedReferenceDTO result = referenceService.getDetailedReferenceByIdAsync(savedReference.getId(), "Bearer token").get(5, TimeUnit.SECONDS);
+
+        assertEquals(savedReference.getId(), result.getId());
+        assertNull(result.getCompany());
+        assertSame(recruiter, result.getContact());
+        assertEquals(List.of(DetailedReferenceDTO.COMPANY_SECTION), result.getMissing());
+    }
+
+    /**
+     * Test that the non-blocking method runs the company and user lookups concurrently: each lookup only answers once
+     * both have started, and would otherwise be given up.
+     */
+    @Test
+    public void testGetDetailedReferenceByIdAsyncRunsLookupsConcurrently() throws Exception {
+        Reference savedReference = referenceRepository.save(newReference());
+        CompanyDTO company = new CompanyDTO();
+        RecruiterDTO recruiter = new RecruiterDTO();
+        CountDownLatch started = new CountDownLatch(2);
+
+        given(reactiveCompanyService.getCompanyById(any(), any())).willReturn(onceAllStarted(started, company));
+        given(reactiveUserService.getRecruiterById(any(), any())).willReturn(onceAllStarted(started, recruiter));
+
+        DetailedReferenceDTO result = referenceService.getDetailedReferenceByIdAsync(savedReference.getId(), "Bearer token").get(5, TimeUnit.SECONDS);
+
+        assertSame(company, result.getCompany());
+        assertSame(recruiter, result.getContact());
+        assertTrue(result.getMissing().isEmpty());
+    }
+
+    /**
+     * Test that the phases of the non-blocking method are timed when requested.
+     */
+    @Test
+    public void testGetDetailedReferenceByIdAsyncTimed() throws Exception {
+        Reference savedReference = referenceRepository.save(newReference());
+
+        given(reactiveCompanyService.getCompanyById(any(), any())).willReturn(Mono.just(new CompanyDTO()).delayElement(Duration.ofMillis(200)));
+        given(reactiveUserService.getRecruiterById(any(), any())).willReturn(Mono.just(new RecruiterDTO()));
+
+        ServerTiming timing = new ServerTiming();
+        referenceService.getDetailedReferenceByIdAsync(savedReference.getId(), "Bearer token", timing).get(5, TimeUnit.SECONDS);
+
+        String header = timing.toHeaderValue();
+        assertTrue(header.matches("db;dur=[0-9.]+, (company|user);dur=[0-9.]+, (company|user);dur=[0-9.]+, total;dur=[0-9.]+"), header);
+        double company = Double.parseDouble(header.replaceAll(".*company;dur=([0-9.]+).*", "$1"));
+        assertTrue(company >= 200, header);
+    }
+
+    /**
+     * Test that the non-blocking method fails when a downstream resource is not found.
+     */
+    @Test
+    public void testGetDetailedReferenceByIdAsyncNotFound() {
+        Reference savedReference = referenceRepository.save(newReference());
+
+        given(reactiveCompanyService.getCompanyById(any(), any())).willReturn(Mono.error(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+        given(reactiveUserService.getRecruiterById(any(), any())).willReturn(Mono.just(new RecruiterDTO()));
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> referenceService.getDetailedReferenceByIdAsync(savedReference.getId(), "Bearer token").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HttpClientErrorException.class, exception.getCause());
+        assertTrue(referenceService.getDetailedReferenceByIdAsync(UUID.randomUUID(), "Bearer token").isCompletedExceptionally());
+    }
+
+    /**
+     * Test that the method fetches each distinct company and recruiter only once.
+     */
+    @Test
+    public void testGetDetailedReferencesByIds() {
+        UUID companyId = UUID.randomUUID();
+        UUID contactId = UUID.randomUUID();
+        Reference first = newReference();
+        first.setCompanyId(companyId);
+        first.setContactId(contactId);
+        Reference second = newReference();
+        second.setCompanyId(companyId);
+        second.setContactId(contactId);
+        Reference third = newReference();
+        third.setContactId(contactId);
+        first = referenceRepository.save(first);
+        second = referenceRepository.save(second);
+        third = referenceRepository.save(third);
+
+        given(companyService.getCompanyById(any(), any())).willReturn(new CompanyDTO());
+        given(userService.getRecruiterById(any(), any())).willReturn(new RecruiterDTO());
+
+        List<DetailedReferenceDTO> result = referenceService.getDetailedReferencesByIds(
+                List.of(third.getId(), UUID.randomUUID(), first.getId(), second.getId()), "Bearer token");
+
+        // Unknown ids are skipped and the order of the request is kept
+        assertEquals(List.of(third.getId(), first.getId(), second.getId()), result.stream().map(DetailedReferenceDTO::getId).toList());
+        verify(companyService, times(1)).getCompanyById(eq(companyId), any());
+        verify(companyService, times(2)).getCompanyById(any(), any());
+        verify(userService, times(1)).getRecruiterById(any(), any());
+    }
+
+    /**
+     * Test that a company or contact not found only leaves its section empty, listed as missing.
+     */
+    @Test
+    public void testGetDetailedReferencesByIdsNotFound() {
+        Reference savedReference = referenceRepository.save(newReference());
+
+        given(companyService.getCompanyById(any(), any())).willThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        given(userService.getRecruiterById(any(), any())).willReturn(new RecruiterDTO());
+
+        List<DetailedReferenceDTO> result = referenceService.getDetailedReferencesByIds(List.of(savedReference.getId()), "Bearer token");
+
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getCompany());
+        assertNotNull(result.get(0).getContact());
+        assertEquals(List.of(DetailedReferenceDTO.COMPANY_SECTION), result.get(0).getMissing());
+    }
+
+    /**
+     * Build a reference with all its attributes set.
+     *
+     * @return Reference not yet saved.
+     */
+    private Reference newReference() {
+        Reference reference = new Reference();
+        reference.setContact("contact");
+        reference.setCompanyId(UUID.randomUUID());
+        reference.setContactId(UUID.randomUUID());
+        reference.setContactJobTitle("jobTitle");
+        return reference;
+    }
+
+    /**
+     * Get the Hibernate statistics.
+     *
+     * @return Statistics.
+     */
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Build a lookup answering once all the lookups sharing its latch have started, within the downstream timeout.
+     *
+     * @param started Latch counted down by each lookup when it starts.
+     * @param value   Value of the lookup.
+     * @param <T>     Type of the value.
+     * @return Lookup, failing if the other lookups have not started in time.
+     */
+    private static <T> Mono<T> onceAllStarted(CountDownLatch started, T value) {
+        return Mono.fromCallable(() -> {
+            started.countDown();
+            if (!started.await(400, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("The other lookups have not started");
+            }
+            return value;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Build a reference DTO with all its attributes set.
+     *
+     * @return Reference DTO.
+     */
+    private ReferenceDTO newReferenceDTO() {
+        ReferenceDTO referenceDTO = new ReferenceDTO();
+        referenceDTO.setContact("contact");
+        referenceDTO.setCompanyId(UUID.randomUUID());
+        referenceDTO.setContactId(UUID.randomUUID());
+        referenceDTO.setContactJobTitle("jobTitle");
+        return referenceDTO;
+    }
 }
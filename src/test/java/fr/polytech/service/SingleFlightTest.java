@@ -0,0 +1,132 @@
+package fr.polytech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    /**
+     * Test that concurrent lookups of the same key run the lookup only once and all get its value.
+     */
+    @Test
+    public void testConcurrentLookupsAreCoalesced() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> {
+                    lookups.incrementAndGet();
+                    await(release);
+                    return "value";
+                }), executor));
+            }
+            // Let all the callers join the lookup in flight before it completes
+            while (lookups.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (CompletableFuture<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, lookups.get());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that the failure of a lookup is thrown to every waiting caller, and that the next lookup runs again.
+     */
+    @Test
+    public void testFailureIsSharedThenForgotten() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("down");
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        started.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> "other"));
+        Thread.sleep(100);
+        release.countDown();
+
+        Exception firstException = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertSame(failure, firstException.getCause());
+        Exception secondException = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertSame(failure, secondException.getCause());
+
+        assertEquals("value", singleFlight.execute("key", () -> "value"));
+    }
+
+    /**
+     * Test that a waiting caller runs its own lookup when the lookup it waited for fails with a failure that is not shared.
+     */
+    @Test
+    public void testNonSharedFailureIsRetried() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(IllegalArgumentException.class::isInstance);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("forbidden");
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        started.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> "other"));
+        CompletableFuture<String> third = singleFlight.executeAsync("key", () -> CompletableFuture.completedFuture("async"));
+        Thread.sleep(100);
+        release.countDown();
+
+        Exception firstException = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertSame(failure, firstException.getCause());
+        assertEquals("other", second.get(5, TimeUnit.SECONDS));
+        assertEquals("async", third.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test that lookups of different keys do not wait for each other.
+     */
+    @Test
+    public void testDistinctKeysAreNotCoalesced() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        assertEquals("a", singleFlight.execute("a", () -> singleFlight.execute("b", () -> "b").replace("b", "a")));
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    /**
+     * Wait for a latch, failing the test if it is not released in time.
+     *
+     * @param latch Latch to wait for.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package fr.polytech.service;
+
+import fr.polytech.model.user.RecruiterDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @MockBean
+    private ApiService apiService;
+
+    /**
+     * Start each test with an empty cache.
+     */
+    @BeforeEach
+    public void setUp() {
+        userService.evictAllRecruiters();
+    }
+
+    /**
+     * Test that a recruiter is fetched only once from the user API.
+     */
+    @Test
+    public void testGetRecruiterByIdIsCached() {
+        UUID id = UUID.randomUUID();
+        RecruiterDTO recruiter = new RecruiterDTO();
+        given(apiService.makeApiCall(eq(ApiService.USER), any(), eq(HttpMethod.GET), eq(RecruiterDTO.class), any())).willReturn(recruiter);
+
+        assertSame(recruiter, userService.getRecruiterById(id, "Bearer token"));
+        assertSame(recruiter, userService.getRecruiterById(id, "Bearer token"));
+
+        verify(apiService, times(1)).makeApiCall(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Test that a recruiter not found is not looked up again from the user API.
+     */
+    @Test
+    public void testGetRecruiterByIdCachesNotFound() {
+        UUID id = UUID.randomUUID();
+        given(apiService.makeApiCall(eq(ApiService.USER), any(), eq(HttpMethod.GET), eq(RecruiterDTO.class), any()))
+                .willThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        for (int i = 0; i < 2; i++) {
+            // Check that an exception is thrown with status code 404
+            HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> userService.getRecruiterById(id, "Bearer token"));
+            assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        }
+
+        verify(apiService, times(1)).makeApiCall(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Test that other errors of the user API are not cached.
+     */
+    @Test
+    public void testGetRecruiterByIdDoesNotCacheOtherErrors() {
+        UUID id = UUID.randomUUID();
+        given(apiService.makeApiCall(eq(ApiService.USER), any(), eq(HttpMethod.GET), eq(RecruiterDTO.class), any()))
+                .willThrow(new HttpClientErrorException(HttpStatus.FORBIDDEN));
+
+        assertThrows(HttpClientErrorException.class, () -> userService.getRecruiterById(id, "Bearer token"));
+        assertThrows(HttpClientErrorException.class, () -> userService.getRecruiterById(id, "Bearer token"));
+
+        verify(apiService, times(2)).makeApiCall(any(), any(), any(), any(), any());
+    }
+}
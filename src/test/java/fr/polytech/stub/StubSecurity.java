@@ -0,0 +1,25 @@
+package fr.polytech.stub;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+/**
+ * Accepts any bearer token, for the benchmarks and load tests that do not measure the token validation.
+ * Not a @Configuration, so that it is only registered by the runs adding it as a source and not found by the component scan.
+ */
+public class StubSecurity {
+
+    @Bean
+    @Primary
+    public JwtDecoder stubJwtDecoder() {
+        return token -> Jwt.withTokenValue(token)
+                .header("alg", "none")
+                .claim("sub", "load")
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package fr.polytech.stub;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downstream API stub answering every request with a configurable status, body and latency, and failing a share of them.
+ */
+public class StubServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile int status = 200;
+
+    private volatile String body = "{}";
+
+    private volatile Duration latency = Duration.ZERO;
+
+    private volatile double errorRate;
+
+    /**
+     * Start a stub on a free local port.
+     *
+     * @throws IOException If the server cannot be started.
+     */
+    public StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean failed = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+            byte[] bytes = (failed ? "{}" : body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(failed ? 500 : status, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Get the base URI of the stub.
+     *
+     * @return Base URI, without trailing slash.
+     */
+    public String getUri() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Answer the next requests with the given status and body.
+     *
+     * @param status HTTP status.
+     * @param body   JSON body.
+     */
+    public void respond(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    /**
+     * Delay the next answers.
+     *
+     * @param latency Delay before answering.
+     */
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Answer a share of the next requests with a 500, whatever the configured status.
+     *
+     * @param errorRate Share of the requests failed, between 0 and 1.
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Get and reset the number of requests received.
+     *
+     * @return Number of requests received since the last call.
+     */
+    public int drainRequests() {
+        return requests.getAndSet(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}